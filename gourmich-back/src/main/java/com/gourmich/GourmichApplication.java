@@ -1,12 +1,29 @@
 package com.gourmich;
 
+import com.gourmich.config.RecipeImportRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
 
 @SpringBootApplication()
 public class GourmichApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(GourmichApplication.class, args);
+		SpringApplication application = new SpringApplication(GourmichApplication.class);
+		if (isRecipeImport(args)) {
+			// Import en ligne de commande : pas de serveur web, arrêt une fois l'import terminé avec son code de sortie
+			application.setWebApplicationType(WebApplicationType.NONE);
+			System.exit(SpringApplication.exit(application.run(args)));
+		}
+		application.run(args);
+	}
+
+	// Argument, variable d'environnement ou propriété système, comme le lirait Spring
+	static boolean isRecipeImport(String[] args) {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+		return environment.containsProperty(RecipeImportRunner.FILE_PROPERTY);
 	}
 }
@@ -0,0 +1,45 @@
+package com.gourmich.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+// Choisit le coût BCrypt le plus élevé dont le hachage tient dans le budget de latence, sur la machine courante.
+// Mesure un coût bas puis extrapole : chaque point de coût double le temps de hachage.
+// Le coût configuré sert de plancher : un hôte lent ou chargé ne peut que garder ce coût, jamais l'affaiblir.
+final class BCryptCalibrator {
+
+    static final int MAX_STRENGTH = 16;
+
+    private static final int PROBE_STRENGTH = 8;
+    private static final int PROBE_ROUNDS = 3;
+
+    private BCryptCalibrator() {
+    }
+
+    static int strengthFor(Duration target, int minStrength) {
+        return strengthFor(target, measureProbe(), minStrength);
+    }
+
+    // Séparé pour être testable sans dépendre de la vitesse de la machine
+    static int strengthFor(Duration target, Duration probe, int minStrength) {
+        long probeNanos = Math.max(1, probe.toNanos());
+        int strength = PROBE_STRENGTH;
+        while (strength < MAX_STRENGTH && probeNanos << (strength + 1 - PROBE_STRENGTH) <= target.toNanos()) {
+            strength++;
+        }
+        return Math.max(minStrength, strength);
+    }
+
+    private static Duration measureProbe() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(PROBE_STRENGTH);
+        encoder.encode("warm-up");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(best);
+    }
+}
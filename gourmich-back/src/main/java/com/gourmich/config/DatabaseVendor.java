@@ -0,0 +1,33 @@
+package com.gourmich.config;
+
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Base réellement connectée (le dialecte Hibernate est forcé à PostgreSQL, y compris sur H2 en test) :
+// permet de choisir entre les requêtes natives PostgreSQL et leur variante portable
+@Component
+public class DatabaseVendor {
+
+    private final DataSource dataSource;
+    private volatile Boolean postgreSql;
+
+    public DatabaseVendor(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public boolean isPostgreSql() {
+        Boolean result = postgreSql;
+        if (result == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                result = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            } catch (SQLException e) {
+                throw new IllegalStateException("Unable to detect the database vendor", e);
+            }
+            postgreSql = result;
+        }
+        return result;
+    }
+}
@@ -1,9 +1,9 @@
 package com.gourmich.config;
 
 import com.gourmich.models.UserPrincipal;
-import com.gourmich.models.Users;
 import com.gourmich.service.CustomUserDetailsService;
 import com.gourmich.service.JWTService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,12 +20,22 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Set;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtFilter.class);
 
+    // Lectures de recettes accessibles sans authentification
+    private static final Set<String> PUBLIC_RECIPE_READS = Set.of(
+            "/api/recipes",
+            "/api/recipes/latest",
+            "/api/recipes/page",
+            "/api/recipes/search",
+            "/api/recipes/pantry"
+    );
+
     @Autowired
     JWTService jwtService;
 
@@ -43,9 +53,7 @@ public class JwtFilter extends OncePerRequestFilter {
         boolean requiresAuth =
                 path.startsWith("/api/favorites") ||
                         (path.startsWith("/api/recipes") &&
-                                !( (path.equals("/api/recipes") && method.equalsIgnoreCase("GET")) ||
-                                        (path.equals("/api/recipes/latest") && method.equalsIgnoreCase("GET"))
-                                )
+                                !(method.equalsIgnoreCase("GET") && PUBLIC_RECIPE_READS.contains(path))
                         );
 
         if (!requiresAuth) {
@@ -61,9 +69,12 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
+        Claims claims;
         String username;
         try {
-            username = jwtService.extractUserName(token);
+            // une seule vérification de signature par requête
+            claims = jwtService.parseClaims(token);
+            username = claims.getSubject();
         } catch (Exception e) {
             logger.warn("Invalid JWT token", e);
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
@@ -72,12 +83,10 @@ public class JwtFilter extends OncePerRequestFilter {
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                Users userEntity = context.getBean(CustomUserDetailsService.class)
-                        .loadUserEntityByUsername(username);
-
-                UserPrincipal principal = new UserPrincipal(userEntity);
+                UserPrincipal principal = context.getBean(CustomUserDetailsService.class)
+                        .loadPrincipalByUsername(username);
 
-                if (jwtService.validateToken(token, principal)) {
+                if (jwtService.validateToken(claims, principal)) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -0,0 +1,71 @@
+package com.gourmich.config;
+
+import com.gourmich.dto.RecipeImportRejectDTO;
+import com.gourmich.dto.RecipeImportReportDTO;
+import com.gourmich.service.CatalogVersionWatcher;
+import com.gourmich.service.RecipeImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Import d'un catalogue en ligne de commande, puis arrêt de l'application (sans serveur web, cf. GourmichApplication) :
+//   java -jar gourmich.jar --gourmich.recipes.import.file=catalogue.ndjson --gourmich.recipes.import.author=partenaire
+// Les événements de l'import restent dans ce processus : catalog_version avance, et le serveur en cours
+// d'exécution reconstruit ses index et caches au passage suivant de CatalogVersionWatcher.
+@Component
+@ConditionalOnProperty(name = RecipeImportRunner.FILE_PROPERTY)
+public class RecipeImportRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    public static final String FILE_PROPERTY = "gourmich.recipes.import.file";
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportRunner.class);
+
+    @Autowired
+    private RecipeImportService recipeImportService;
+
+    @Autowired
+    private CatalogVersionWatcher catalogVersionWatcher;
+
+    @Value("${" + FILE_PROPERTY + "}")
+    private Path file;
+
+    @Value("${gourmich.recipes.import.author:admin}")
+    private String author;
+
+    private int exitCode;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        RecipeImportReportDTO report;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+            report = recipeImportService.importRecipes(input, author);
+        }
+
+        for (RecipeImportRejectDTO reject : report.getRejects()) {
+            logger.warn("Record {} ({}) rejected: {}", reject.getRecord(), reject.getTitle(), reject.getReason());
+        }
+        logger.info("Import of {} done: {} records read, {} imported, {} rejected",
+                file, report.getReceived(), report.getImported(), report.getRejected());
+
+        if (report.getImported() > 0) {
+            catalogVersionWatcher.bump();
+        }
+        exitCode = report.getRejected() == 0 ? 0 : 1;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
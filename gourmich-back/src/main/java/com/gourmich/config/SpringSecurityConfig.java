@@ -1,7 +1,11 @@
 package com.gourmich.config;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,6 +17,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -20,22 +25,49 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SpringSecurityConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(SpringSecurityConfig.class);
+
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private UserDetailsPasswordService userDetailsPasswordService;
+
     @Autowired
     private JwtFilter jwtFilter;
 
+    @Value("${gourmich.security.bcrypt.strength:12}")
+    private int bcryptStrength;
+
+    // Budget de latence d'un hachage ; 0 = pas de calibration, on garde bcrypt.strength
+    @Value("${gourmich.security.bcrypt.target-millis:0}")
+    private long bcryptTargetMillis;
+
+    @Value("${gourmich.security.password-hashing.threads:2}")
+    private int hashingThreads;
+
+    @Value("${gourmich.security.password-hashing.queue-capacity:16}")
+    private int hashingQueueCapacity;
+
+    @Value("${gourmich.security.password-hashing.timeout:5s}")
+    private Duration hashingTimeout;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> {})
                 .authorizeHttpRequests(auth -> auth
+                        // le dispatch ASYNC ne fait que terminer une requête déjà autorisée (flux de l'export)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/recipes/bulk").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/recipes/export").authenticated()
                         .requestMatchers(HttpMethod.PUT, "/api/recipes/by-id/**").authenticated()
                         .requestMatchers(HttpMethod.DELETE, "/api/recipes/by-id/**").authenticated()
                         .requestMatchers("/api/favorites/**").authenticated()
@@ -55,11 +87,26 @@ public class SpringSecurityConfig {
     @Bean
     public AuthenticationProvider authenticationProvider(){
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(new BCryptPasswordEncoder(12));
+        provider.setPasswordEncoder(passwordEncoder());
         provider.setUserDetailsService(userDetailsService);
+        // Rehash transparent au login des mots de passe stockés avec un coût inférieur
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
         return provider;
     }
 
+    // Encodeur partagé (login et inscription) : BCrypt sur un pool borné
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        int strength = bcryptStrength;
+        if (bcryptTargetMillis > 0) {
+            // la calibration ne peut que relever le coût configuré
+            strength = BCryptCalibrator.strengthFor(Duration.ofMillis(bcryptTargetMillis), bcryptStrength);
+            logger.info("BCrypt strength calibrated to {} for a {} ms target", strength, bcryptTargetMillis);
+        }
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength),
+                hashingThreads, hashingQueueCapacity, hashingTimeout);
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
         return configuration.getAuthenticationManager();
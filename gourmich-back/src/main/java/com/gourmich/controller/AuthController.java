@@ -2,11 +2,13 @@ package com.gourmich.controller;
 
 import com.gourmich.dto.LoginRequest;
 import com.gourmich.dto.RegisterUserDTO;
+import com.gourmich.exception.ServerBusyException;
 import com.gourmich.exception.UserAlreadyExistsException;
 import com.gourmich.models.Users;
 import com.gourmich.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -29,6 +31,8 @@ public class AuthController {
             return ResponseEntity.ok("User registered");
         } catch (UserAlreadyExistsException ex) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        } catch (ServerBusyException ex) {
+            return serverBusy(ex);
         } catch (Exception ex) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error");
         }
@@ -40,6 +44,8 @@ public class AuthController {
             return userService.login(request);
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid username or password");
+        } catch (ServerBusyException e) {
+            return serverBusy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Server error");
         }
@@ -64,4 +70,10 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("exists", false));
         }
     }
+
+    private ResponseEntity<Object> serverBusy(ServerBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package com.gourmich.controller;
 
+import com.gourmich.dto.CategoryOverviewDTO;
 import com.gourmich.models.RecipeCategory;
+import com.gourmich.service.CategoryOverviewService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Arrays;
@@ -15,6 +19,8 @@ import java.util.stream.Collectors;
 @RequestMapping("/api")
 public class CategoryController {
 
+    @Autowired
+    private CategoryOverviewService categoryOverviewService;
 
     @GetMapping("/categories")
     public ResponseEntity<List<String>> getAllCategories() {
@@ -24,4 +30,10 @@ public class CategoryController {
 
         return ResponseEntity.ok(categories);
     }
+
+    @GetMapping("/categories/overview")
+    public ResponseEntity<List<CategoryOverviewDTO>> getOverview(
+            @RequestParam(required = false) Integer perCategory) {
+        return ResponseEntity.ok(categoryOverviewService.getOverview(perCategory));
+    }
 }
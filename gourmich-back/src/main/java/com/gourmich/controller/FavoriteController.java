@@ -1,6 +1,9 @@
 package com.gourmich.controller;
 
 import com.gourmich.dto.FavoriteDTO;
+import com.gourmich.dto.FavoritePageDTO;
+import com.gourmich.exception.ResourceNotFoundException;
+import com.gourmich.models.RecipeCategory;
 import com.gourmich.models.UserPrincipal;
 import com.gourmich.models.Users;
 import com.gourmich.service.FavoriteService;
@@ -10,11 +13,15 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/favorites")
 public class FavoriteController {
 
+    // ids acceptés par POST /status : une page de recettes, pas le catalogue
+    static final int MAX_STATUS_IDS = 200;
+
     private final FavoriteService favoriteService;
 
     public FavoriteController(FavoriteService favoriteService) {
@@ -34,6 +41,48 @@ public class FavoriteController {
         }
     }
 
+    // Pas de try/catch : la route exige une authentification, et un curseur ou une catégorie invalides
+    // doivent rester des 400 (GlobalExceptionHandler) plutôt que les 401 des autres routes
+    @GetMapping("/page")
+    public ResponseEntity<FavoritePageDTO> getFavoritePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String category) {
+        RecipeCategory recipeCategory = category == null || category.isBlank() ? null : RecipeCategory.fromValue(category);
+        return ResponseEntity.ok(favoriteService.getFavoritePageForCurrentUser(recipeCategory, cursor, size));
+    }
+
+    // Ajout idempotent : 201 si le favori est créé, 204 s'il existait déjà
+    @PutMapping("/{recipeId}")
+    public ResponseEntity<?> addFavorite(@PathVariable Long recipeId) {
+        try {
+            boolean created = favoriteService.addFavoriteForCurrentUser(recipeId);
+            return created ? ResponseEntity.status(HttpStatus.CREATED).build() : ResponseEntity.noContent().build();
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erreur interne lors de l'ajout du favori");
+        }
+    }
+
+    // Retrait idempotent : 204 que le favori ait existé ou non
+    @DeleteMapping("/{recipeId}")
+    public ResponseEntity<?> removeFavorite(@PathVariable Long recipeId) {
+        try {
+            favoriteService.removeFavoriteForCurrentUser(recipeId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erreur interne lors du retrait du favori");
+        }
+    }
+
+    // Remplacé par PUT/DELETE /{recipeId} : avec le toggle, l'état final de deux clics rapprochés dépend de leur ordre d'arrivée
     @PostMapping("/toggle")
     public ResponseEntity<?> toggleFavorite(@RequestParam Long recipeId) {
         try {
@@ -65,5 +114,20 @@ public class FavoriteController {
         }
     }
 
-
+    // Remplace un GET /is-favorite par carte : tous les statuts d'une page en un appel
+    @PostMapping("/status")
+    public ResponseEntity<?> getFavoriteStatus(@RequestBody List<Long> recipeIds) {
+        if (recipeIds.size() > MAX_STATUS_IDS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_STATUS_IDS + " recipe ids can be checked at once.");
+        }
+        try {
+            Map<Long, Boolean> status = favoriteService.getFavoriteStatusForCurrentUser(recipeIds);
+            return ResponseEntity.ok(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erreur interne lors de la vérification des favoris");
+        }
+    }
 }
\ No newline at end of file
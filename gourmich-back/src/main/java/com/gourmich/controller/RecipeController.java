@@ -2,21 +2,46 @@ package com.gourmich.controller;
 
 import com.gourmich.dto.IngredientDTO;
 import com.gourmich.dto.RecipeDTO;
+import com.gourmich.dto.PantryMatchDTO;
+import com.gourmich.dto.RecipeFilter;
+import com.gourmich.dto.RecipeSort;
+import com.gourmich.dto.RecipeImportReportDTO;
+import com.gourmich.dto.RecipePageDTO;
 import com.gourmich.dto.UpdateRecipeDTO;
 import com.gourmich.exception.ResourceNotFoundException;
 import com.gourmich.models.Recipe;
+import com.gourmich.models.RecipeCategory;
 import com.gourmich.models.UserPrincipal;
+import com.gourmich.service.RecipeExportLimiter;
+import com.gourmich.service.RecipeExportService;
+import com.gourmich.service.RecipeImportService;
+import com.gourmich.service.RecipeRevision;
 import com.gourmich.service.RecipeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/recipes")
@@ -25,6 +50,18 @@ public class RecipeController {
     @Autowired
     private RecipeService recipeService;
 
+    @Autowired
+    private RecipeImportService recipeImportService;
+
+    @Autowired
+    private RecipeExportService recipeExportService;
+
+    @Autowired
+    private RecipeExportLimiter recipeExportLimiter;
+
+    @Value("${gourmich.recipes.export.timeout:30m}")
+    private Duration exportTimeout;
+
 
     @PostMapping
     public ResponseEntity<?> createRecipe(@RequestBody Recipe recipe) {
@@ -39,30 +76,101 @@ public class RecipeController {
         }
     }
 
+    // Import en masse : tableau JSON ou NDJSON lu en flux, rapport des enregistrements rejetés
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<RecipeImportReportDTO> importRecipes(InputStream body) throws IOException {
+        return ResponseEntity.ok(recipeImportService.importRecipes(body));
+    }
+
+    // Export NDJSON du catalogue, écrit au fil de la lecture sans charger toutes les recettes.
+    // Seul endpoint à délai asynchrone long ; la place réservée est rendue à la fin du flux, ou à la fin
+    // de la requête asynchrone si le flux n'a jamais démarré (tâche rejetée, client parti).
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRecipes(WebRequest request) {
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        RecipeExportLimiter.Permit permit = recipeExportLimiter.acquire();
+        asyncManager.registerCallableInterceptor(RecipeExportLimiter.class, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest completed, Callable<T> task) {
+                permit.releaseIfNotStarted();
+            }
+        });
+        StreamingResponseBody body = out -> {
+            if (!permit.start()) {
+                return;
+            }
+            try {
+                recipeExportService.exportRecipes(out);
+            } finally {
+                permit.release();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping
-    public ResponseEntity<List<RecipeDTO>> getAllRecipes() {
-        List<RecipeDTO> dtos = recipeService.getAllRecipes().stream()
-                .map(recipeService::toDto)
-                .toList();
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<RecipeDTO>> getAllRecipes(WebRequest request) {
+        RecipeRevision revision = recipeService.getAllRecipesRevision();
+        if (request.checkNotModified(revision.eTag(), revision.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(recipeService.getAllRecipes());
     }
 
-    @GetMapping("/latest")
-    public ResponseEntity<List<RecipeDTO>> getLatestRecipes(@RequestParam(defaultValue = "3") int n) {
-        List<Recipe> latestRecipes = recipeService.getLatestRecipes(n);
+    @GetMapping("/page")
+    public ResponseEntity<RecipePageDTO> getRecipePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer difficultyMin,
+            @RequestParam(required = false) Integer difficultyMax,
+            @RequestParam(required = false) Long cookingTimeMax,
+            @RequestParam(defaultValue = "latest") String sort,
+            @RequestParam(defaultValue = "false") boolean facets) {
+        RecipeFilter filter = new RecipeFilter(
+                category == null || category.isBlank() ? null : RecipeCategory.fromValue(category),
+                difficultyMin, difficultyMax, cookingTimeMax);
+        return ResponseEntity.ok(recipeService.getRecipePage(filter, RecipeSort.fromValue(sort), cursor, size, facets));
+    }
 
-        List<RecipeDTO> dtoList = latestRecipes.stream()
-                .map(recipe -> recipeService.toDto(recipe))
-                .toList();
+    @GetMapping("/search")
+    public ResponseEntity<RecipePageDTO> searchRecipes(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(recipeService.searchRecipes(q, cursor, size));
+    }
 
-        return ResponseEntity.ok(dtoList);
+    @GetMapping("/pantry")
+    public ResponseEntity<List<PantryMatchDTO>> findRecipesForPantry(
+            @RequestParam(required = false) List<String> ingredients,
+            @RequestParam(defaultValue = "2") int maxMissing,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(recipeService.findRecipesForPantry(ingredients, maxMissing, size));
     }
 
+    @GetMapping("/latest")
+    public ResponseEntity<List<RecipeDTO>> getLatestRecipes(@RequestParam(defaultValue = "3") int n, WebRequest request) {
+        RecipeRevision revision = recipeService.getLatestRevision(n);
+        if (request.checkNotModified(revision.eTag(), revision.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(recipeService.getLatestRecipeDtos(n));
+    }
+
+    // no-cache : le navigateur garde la réponse mais revalide toujours (304 tant que la version ne change pas)
     @GetMapping("/by-id/{id}")
-    public ResponseEntity<RecipeDTO> getRecipeById(@PathVariable Long id) {
-        return recipeService.getRecipeById(id)
-                .map(recipeService::toDto)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<RecipeDTO> getRecipeById(@PathVariable Long id, WebRequest request) {
+        Optional<RecipeRevision> revision = recipeService.getRecipeRevision(id);
+        if (revision.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(revision.get().eTag(), revision.get().lastModified())) {
+            return null;
+        }
+        return recipeService.getRecipeDtoById(id)
+                .map(dto -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -79,9 +187,13 @@ public class RecipeController {
     @PutMapping("/by-id/{id}")
     public ResponseEntity<UpdateRecipeDTO> updateRecipe(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody RecipeDTO updatedRecipeDto) {
 
-        UpdateRecipeDTO updated = recipeService.updateRecipe(id, updatedRecipeDto);
-        return ResponseEntity.ok(updated);
+        UpdateRecipeDTO updated = recipeService.updateRecipe(id, updatedRecipeDto, ifMatch);
+        // nouvel ETag : permet d'enchaîner une autre modification conditionnelle sans relire
+        return ResponseEntity.ok()
+                .eTag(RecipeRevision.of(List.of(updated)).eTag())
+                .body(updated);
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.gourmich.dto;
+
+import com.gourmich.models.RecipeCategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Bloc de la page d'accueil pour une catégorie : nombre total de recettes et les plus récentes
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryOverviewDTO {
+    private RecipeCategory category;
+    private long recipeCount;
+    private List<RecipeSummaryDTO> latest;
+}
@@ -4,6 +4,8 @@ import com.gourmich.models.RecipeCategory;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 public class FavoriteDTO {
@@ -15,9 +17,10 @@ public class FavoriteDTO {
     private String authorUsername;
     private Long cookingTime;
     private RecipeCategory category;
+    private LocalDateTime addAt;
 
     public FavoriteDTO(Long id, Long recipeId, String title, String description, String imageUrl,
-                       String authorUsername, Long cookingTime, RecipeCategory category) {
+                       String authorUsername, Long cookingTime, RecipeCategory category, LocalDateTime addAt) {
         this.id = id;
         this.recipeId = recipeId;
         this.title = title;
@@ -26,5 +29,6 @@ public class FavoriteDTO {
         this.authorUsername = authorUsername;
         this.cookingTime = cookingTime;
         this.category = category;
+        this.addAt = addAt;
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.gourmich.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoritePageDTO {
+    private List<FavoriteDTO> items;
+
+    // Curseur opaque de la page suivante, null sur la dernière page
+    private String next;
+}
@@ -0,0 +1,14 @@
+package com.gourmich.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PantryMatchDTO {
+    private RecipeSummaryDTO recipe;
+    private int matchedIngredients;
+    private int missingIngredients;
+}
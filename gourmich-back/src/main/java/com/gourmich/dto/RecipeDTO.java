@@ -1,10 +1,12 @@
 package com.gourmich.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.gourmich.dto.IngredientDTO;
 import com.gourmich.models.RecipeCategory;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -12,7 +14,7 @@ import java.util.List;
 @AllArgsConstructor
 @Getter
 @Setter
-public class RecipeDTO {
+public class RecipeDTO implements RecipeVersion {
     private Long id;
 
     @NotBlank(message = "Title is required.")
@@ -50,4 +52,14 @@ public class RecipeDTO {
     private String instructions;
 
     private String authorUsername;
-}
\ No newline at end of file
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime updatedAt;
+
+    // Agrégé par lots : peut retarder de quelques secondes sur les derniers favoris
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long favoriteCount;
+}
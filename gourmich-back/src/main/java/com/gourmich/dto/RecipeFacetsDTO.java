@@ -0,0 +1,17 @@
+package com.gourmich.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+// Compteurs par catégorie et par difficulté ; chaque facette ignore son propre filtre
+// pour que le client puisse afficher les autres choix possibles
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeFacetsDTO {
+    private Map<String, Long> categories;
+    private Map<Integer, Long> difficulties;
+}
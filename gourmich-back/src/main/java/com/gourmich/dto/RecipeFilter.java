@@ -0,0 +1,16 @@
+package com.gourmich.dto;
+
+import com.gourmich.models.RecipeCategory;
+
+// Filtres optionnels du listing des recettes ; null = pas de contrainte sur ce critère
+public record RecipeFilter(RecipeCategory category,
+                           Integer difficultyMin,
+                           Integer difficultyMax,
+                           Long cookingTimeMax) {
+
+    public static final RecipeFilter NONE = new RecipeFilter(null, null, null, null);
+
+    public boolean isEmpty() {
+        return category == null && difficultyMin == null && difficultyMax == null && cookingTimeMax == null;
+    }
+}
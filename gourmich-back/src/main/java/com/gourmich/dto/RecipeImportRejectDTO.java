@@ -0,0 +1,15 @@
+package com.gourmich.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Enregistrement écarté par l'import en masse ; record = position dans le fichier (à partir de 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeImportRejectDTO {
+    private int record;
+    private String title;
+    private String reason;
+}
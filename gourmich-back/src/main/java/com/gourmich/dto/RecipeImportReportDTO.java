@@ -0,0 +1,18 @@
+package com.gourmich.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// rejects est tronqué au-delà de gourmich.recipes.import.max-reported-rejects ; rejected reste le total
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeImportReportDTO {
+    private int received;
+    private int imported;
+    private int rejected;
+    private List<RecipeImportRejectDTO> rejects;
+}
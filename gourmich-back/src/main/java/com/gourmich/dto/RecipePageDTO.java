@@ -0,0 +1,26 @@
+package com.gourmich.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipePageDTO {
+    private List<RecipeSummaryDTO> items;
+
+    // Curseur opaque à renvoyer pour obtenir la page suivante, null sur la dernière page
+    private String next;
+
+    // Uniquement sur la première page, quand le client les demande
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private RecipeFacetsDTO facets;
+
+    public RecipePageDTO(List<RecipeSummaryDTO> items, String next) {
+        this(items, next, null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.gourmich.dto;
+
+// Ordre du listing paginé : les plus récentes (défaut) ou les plus mises en favori
+public enum RecipeSort {
+    LATEST,
+    POPULAR;
+
+    public static RecipeSort fromValue(String value) {
+        for (RecipeSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value.trim())) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort: " + value);
+    }
+}
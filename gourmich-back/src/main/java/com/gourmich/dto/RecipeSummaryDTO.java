@@ -0,0 +1,29 @@
+package com.gourmich.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.gourmich.models.RecipeCategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Vue allégée d'une recette pour les listings (sans instructions ni ingrédients)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeSummaryDTO {
+    private Long id;
+    private String title;
+    private String description;
+    private String imageUrl;
+    private RecipeCategory category;
+    private Integer difficulty;
+    private Long cookingTime;
+    private String authorUsername;
+    private LocalDateTime createdAt;
+
+    // null quand la source ne le porte pas (vue matérialisée de l'accueil)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long favoriteCount;
+}
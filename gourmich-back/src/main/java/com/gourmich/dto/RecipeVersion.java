@@ -0,0 +1,13 @@
+package com.gourmich.dto;
+
+import java.time.LocalDateTime;
+
+// Ce qui identifie l'état d'une recette pour les requêtes conditionnelles :
+// exposé par RecipeDTO, ou lu seul en base sans charger la recette.
+// favoriteCount change sans toucher à la version (FavoriteCounter écrit en JDBC) : il est porté à part.
+public interface RecipeVersion {
+    Long getId();
+    Long getVersion();
+    LocalDateTime getUpdatedAt();
+    Long getFavoriteCount();
+}
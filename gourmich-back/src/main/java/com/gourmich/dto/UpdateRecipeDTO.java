@@ -1,11 +1,13 @@
 package com.gourmich.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-public class UpdateRecipeDTO {
+public class UpdateRecipeDTO implements RecipeVersion {
     private Long id;
     private String title;
     private String description;
@@ -16,4 +18,9 @@ public class UpdateRecipeDTO {
     private String instructions;
     private String authorUsername;
     private List<IngredientDTO> ingredients;
+    private Long version;
+    private LocalDateTime updatedAt;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long favoriteCount;
 }
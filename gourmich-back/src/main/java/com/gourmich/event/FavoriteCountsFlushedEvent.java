@@ -0,0 +1,7 @@
+package com.gourmich.event;
+
+import java.util.Set;
+
+// Publié par FavoriteCounter pour chaque lot écrit dans recipes.favorite_count : recettes dont le compteur a changé
+public record FavoriteCountsFlushedEvent(Set<Long> recipeIds) {
+}
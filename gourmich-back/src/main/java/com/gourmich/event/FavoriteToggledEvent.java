@@ -0,0 +1,5 @@
+package com.gourmich.event;
+
+// Publié par FavoriteService à chaque ajout (+1) ou retrait (-1) d'un favori
+public record FavoriteToggledEvent(Long recipeId, int delta) {
+}
@@ -0,0 +1,6 @@
+package com.gourmich.event;
+
+// Publié par RecipeService quand le catalogue a été modifié hors de cette instance (import en ligne de commande) :
+// index et caches en mémoire repartent de la base au lieu d'attendre un redémarrage
+public record RecipeCatalogReloadedEvent() {
+}
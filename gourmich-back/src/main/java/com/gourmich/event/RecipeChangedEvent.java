@@ -0,0 +1,5 @@
+package com.gourmich.event;
+
+// Publié par RecipeService à chaque création, modification ou suppression d'une recette
+public record RecipeChangedEvent(Long recipeId) {
+}
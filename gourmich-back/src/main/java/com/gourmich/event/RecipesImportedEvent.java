@@ -0,0 +1,9 @@
+package com.gourmich.event;
+
+import java.util.List;
+import java.util.Map;
+
+// Publié par RecipeImportService pour chaque lot importé : id de recette -> noms de ses ingrédients,
+// pour que les index en mémoire se mettent à jour sans relire la base recette par recette
+public record RecipesImportedEvent(Map<Long, List<String>> ingredientNamesByRecipe) {
+}
@@ -0,0 +1,6 @@
+package com.gourmich.event;
+
+// Publié à chaque écriture sur un utilisateur (inscription, rehash du mot de passe) ;
+// PrincipalCache retire alors son entrée après commit. Toute future modification ou suppression doit le publier.
+public record UserChangedEvent(String username) {
+}
@@ -0,0 +1,8 @@
+package com.gourmich.exception;
+
+// If-Match ne correspond plus à l'état actuel de la ressource : le client doit relire avant de réécrire
+public class PreconditionFailedException extends RuntimeException{
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
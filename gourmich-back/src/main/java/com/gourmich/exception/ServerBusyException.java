@@ -0,0 +1,8 @@
+package com.gourmich.exception;
+
+// Capacité saturée (ex : file de hachage des mots de passe pleine) : le client doit réessayer plus tard
+public class ServerBusyException extends RuntimeException{
+    public ServerBusyException(String message) {
+        super(message);
+    }
+}
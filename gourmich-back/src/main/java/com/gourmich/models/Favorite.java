@@ -13,18 +13,20 @@ import java.time.LocalDateTime;
 @Entity
 @Getter
 @Setter
-@Table(name = "favorite")
+@Table(name = "favorite",
+        uniqueConstraints = @UniqueConstraint(name = "uc_favorite", columnNames = {"user_id", "recipe_id"}))
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Favorite {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "favorite_id_seq")
+    @SequenceGenerator(name = "favorite_id_seq", sequenceName = "favorite_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_favorite_user"))
     private Users user;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "recipe_id", nullable = false, foreignKey = @ForeignKey(name = "fk_favorite_recipe"))
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Recipe recipe;
@@ -14,7 +14,9 @@ import lombok.*;
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Ingredient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // séquence par blocs de 50 (cf. V12) : les INSERT partent en batch JDBC, IDENTITY l'empêchait
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_id_seq")
+    @SequenceGenerator(name = "ingredients_id_seq", sequenceName = "ingredients_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -26,6 +28,10 @@ public class Ingredient {
     @Column(nullable = false)
     private String unit;
 
+    // Position dans la recette : les lectures trient dessus, pas sur l'id
+    @Column(name = "sort_order", nullable = false)
+    private int sortOrder;
+
     @ManyToOne
     @JoinColumn(name = "recipe_id", nullable = false)
     @ToString.Exclude
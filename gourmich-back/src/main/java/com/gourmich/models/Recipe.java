@@ -2,20 +2,33 @@ package com.gourmich.models;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Table(name="recipes")
+// Plan de chargement utilisé par toutes les lectures qui rendent un RecipeDTO
+@NamedEntityGraph(
+        name = Recipe.WITH_INGREDIENTS_AND_AUTHOR,
+        attributeNodes = {
+                @NamedAttributeNode("ingredients"),
+                @NamedAttributeNode("author")
+        }
+)
 @Data
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 public class Recipe {
+    public static final String WITH_INGREDIENTS_AND_AUTHOR = "Recipe.withIngredientsAndAuthor";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_id_seq")
+    @SequenceGenerator(name = "recipes_id_seq", sequenceName = "recipes_id_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -29,15 +42,37 @@ public class Recipe {
     private Long cookingTime;
 
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("sortOrder")
     @JsonManagedReference
     private List<Ingredient> ingredients;
 
     private String instructions;
     private LocalDateTime createdAt;
 
+    // Incrémentée par Hibernate à chaque modification ; sert d'ETag aux lectures
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime updatedAt;
+
+    // Écrit uniquement par FavoriteCounter en JDBC : hors des INSERT/UPDATE de l'entité, donc sans
+    // incrément de version ni verrou de ligne pris par les modifications de la recette
+    @Column(insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long favoriteCount;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 
     @ManyToOne(fetch = FetchType.LAZY)
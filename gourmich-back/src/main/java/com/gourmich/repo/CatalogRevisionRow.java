@@ -0,0 +1,12 @@
+package com.gourmich.repo;
+
+import java.time.LocalDateTime;
+
+// Agrégats de la table recipes d'où dérive l'ETag de la liste complète : une seule ligne, sans lire les recettes
+public interface CatalogRevisionRow {
+    Long getRecipeCount();
+    Long getMaxId();
+    LocalDateTime getMaxUpdatedAt();
+    Long getVersionSum();
+    Long getFavoriteCountSum();
+}
@@ -0,0 +1,17 @@
+package com.gourmich.repo;
+
+import java.time.LocalDateTime;
+
+// Ligne de recipe_category_overview : une recette parmi les plus récentes de sa catégorie
+public interface CategoryOverviewRow {
+    String getCategory();
+    Long getRecipeCount();
+    Long getId();
+    String getTitle();
+    String getDescription();
+    String getImageUrl();
+    Integer getDifficulty();
+    Long getCookingTime();
+    String getAuthorUsername();
+    LocalDateTime getCreatedAt();
+}
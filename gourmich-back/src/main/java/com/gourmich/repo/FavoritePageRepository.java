@@ -0,0 +1,14 @@
+package com.gourmich.repo;
+
+import com.gourmich.dto.FavoriteDTO;
+import com.gourmich.models.RecipeCategory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Listing paginé des favoris : la catégorie n'est ajoutée à la requête que lorsqu'elle est demandée
+public interface FavoritePageRepository {
+
+    // Page keyset (add_at, id), plus récents d'abord ; addAt/id null pour la première page
+    List<FavoriteDTO> findFavoritePage(Long userId, RecipeCategory category, LocalDateTime addAt, Long id, int limit);
+}
@@ -0,0 +1,52 @@
+package com.gourmich.repo;
+
+import com.gourmich.dto.FavoriteDTO;
+import com.gourmich.models.Favorite;
+import com.gourmich.models.Recipe;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.models.Users;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class FavoritePageRepositoryImpl implements FavoritePageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FavoriteDTO> findFavoritePage(Long userId, RecipeCategory category, LocalDateTime addAt, Long id,
+                                              int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FavoriteDTO> query = cb.createQuery(FavoriteDTO.class);
+        Root<Favorite> favorite = query.from(Favorite.class);
+        Join<Favorite, Recipe> recipe = favorite.join("recipe");
+        Join<Recipe, Users> author = recipe.join("author");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(favorite.get("user").get("id"), userId));
+        if (category != null) {
+            predicates.add(cb.equal(recipe.get("category"), category));
+        }
+        if (addAt != null && id != null) {
+            // équivalent de (add_at, id) < (:addAt, :id)
+            predicates.add(cb.or(
+                    cb.lessThan(favorite.get("addAt"), addAt),
+                    cb.and(cb.equal(favorite.get("addAt"), addAt), cb.lessThan(favorite.get("id"), id))
+            ));
+        }
+
+        query.select(cb.construct(FavoriteDTO.class,
+                        favorite.get("id"), recipe.get("id"), recipe.get("title"), recipe.get("description"),
+                        recipe.get("imageUrl"), author.get("username"), recipe.get("cookingTime"),
+                        recipe.get("category"), favorite.get("addAt")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(favorite.get("addAt")), cb.desc(favorite.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
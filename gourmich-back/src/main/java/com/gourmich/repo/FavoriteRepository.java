@@ -1,27 +1,70 @@
 package com.gourmich.repo;
 
+import com.gourmich.dto.FavoriteDTO;
 import com.gourmich.models.Favorite;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
+public interface FavoriteRepository extends JpaRepository<Favorite, Long>, FavoritePageRepository {
 
-    // Récupère un favori spécifique
-    Optional<Favorite> findByUserIdAndRecipeId(Long userId, Long recipeId);
+    // Sondes scalaires : répondues par l'index uc_favorite (user_id, recipe_id) sans charger d'entité
+    @Query("SELECT CASE WHEN COUNT(*) > 0 THEN true ELSE false END FROM Favorite f " +
+            "WHERE f.user.id = :userId AND f.recipe.id = :recipeId")
+    boolean existsByUserIdAndRecipeId(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
 
-    // Supprimer un favori
-    void deleteByUserIdAndRecipeId(Long userId, Long recipeId);
+    // Parmi ces recettes, celles que l'utilisateur a en favori : une seule requête pour toute une page
+    @Query("SELECT f.recipe.id FROM Favorite f WHERE f.user.id = :userId AND f.recipe.id IN :recipeIds")
+    List<Long> findFavoriteRecipeIds(@Param("userId") Long userId, @Param("recipeIds") Collection<Long> recipeIds);
 
-    // Récupère tous les favoris d'un utilisateur en joignant la recette et son auteur
-    @Query("SELECT f FROM Favorite f " +
-            "JOIN FETCH f.recipe r " +
-            "JOIN FETCH r.author " +
-            "WHERE f.user.id = :userId")
-    List<Favorite> findFavoritesWithRecipeAndAuthor(@Param("userId") Long userId);
+    // Ajout idempotent en une instruction, sans lecture préalable : 1 si la ligne a été créée, 0 si elle existait.
+    // L'id vient de la séquence côté base ; avec l'optimiseur pooled, une valeur tirée hors d'Hibernate
+    // est le haut d'un bloc qu'il ne distribuera jamais. Le NOT EXISTS ne tire l'id que pour une vraie
+    // insertion (ON CONFLICT l'évaluerait avant de constater le doublon) ; ON CONFLICT couvre la course
+    // entre deux ajouts simultanés.
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO favorite (id, user_id, recipe_id, add_at)
+            SELECT nextval('favorite_id_seq'), :userId, :recipeId, CURRENT_TIMESTAMP
+            WHERE NOT EXISTS (SELECT 1 FROM favorite WHERE user_id = :userId AND recipe_id = :recipeId)
+            ON CONFLICT (user_id, recipe_id) DO NOTHING
+            """)
+    int insertIgnoringConflict(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
 
-    List<Favorite> findByUserId(Long userId);
+    // Variante portable (H2 en test) : pas d'ON CONFLICT, la contrainte uc_favorite reste le dernier garde-fou
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO favorite (id, user_id, recipe_id, add_at)
+            SELECT NEXT VALUE FOR favorite_id_seq, :userId, :recipeId, CURRENT_TIMESTAMP
+            WHERE NOT EXISTS (SELECT 1 FROM favorite WHERE user_id = :userId AND recipe_id = :recipeId)
+            """)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
+
+    // DELETE direct plutôt que la suppression dérivée, qui charge chaque favori avant de le retirer
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.user.id = :userId AND f.recipe.id = :recipeId")
+    int deleteByUserIdAndRecipeId(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
+
+    // Récupère tous les favoris d'un utilisateur, projetés directement en DTO avec la recette et son auteur
+    @Query("SELECT new com.gourmich.dto.FavoriteDTO(f.id, r.id, r.title, r.description, r.imageUrl, " +
+            "a.username, r.cookingTime, r.category, f.addAt) " +
+            "FROM Favorite f " +
+            "JOIN f.recipe r " +
+            "JOIN r.author a " +
+            "WHERE f.user.id = :userId " +
+            "ORDER BY f.id")
+    List<FavoriteDTO> findFavoriteDtosByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.gourmich.dto.FavoriteDTO(f.id, r.id, r.title, r.description, r.imageUrl, " +
+            "a.username, r.cookingTime, r.category, f.addAt) " +
+            "FROM Favorite f " +
+            "JOIN f.recipe r " +
+            "JOIN r.author a " +
+            "WHERE f.user.id = :userId AND f.recipe.id = :recipeId")
+    Optional<FavoriteDTO> findFavoriteDto(@Param("userId") Long userId, @Param("recipeId") Long recipeId);
 }
\ No newline at end of file
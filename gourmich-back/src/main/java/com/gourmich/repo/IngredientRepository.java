@@ -3,8 +3,19 @@ package com.gourmich.repo;
 import com.gourmich.models.Ingredient;
 import com.gourmich.models.Recipe;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface IngredientRepository extends JpaRepository<Ingredient, Long>  {
 
     void deleteAllByRecipe(Recipe recipe);
+
+    // Construction de l'index du garde-manger : [recipeId, name] sans charger les entités
+    @Query("SELECT i.recipe.id, i.name FROM Ingredient i")
+    List<Object[]> findAllRecipeIdsAndNames();
+
+    @Query("SELECT i.name FROM Ingredient i WHERE i.recipe.id = :recipeId")
+    List<String> findNamesByRecipeId(@Param("recipeId") Long recipeId);
 }
@@ -0,0 +1,25 @@
+package com.gourmich.repo;
+
+import com.gourmich.dto.RecipeFilter;
+import com.gourmich.dto.RecipeSummaryDTO;
+import com.gourmich.models.RecipeCategory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Requêtes du listing filtré : construites dynamiquement pour ne garder que les critères présents
+public interface RecipeFilterRepository {
+
+    // Page keyset (created_at, id) filtrée ; createdAt/id null pour la première page
+    List<RecipeSummaryDTO> findFilteredSummaries(RecipeFilter filter, LocalDateTime createdAt, Long id, int limit);
+
+    // Page keyset (favorite_count, id), filtres facultatifs ; favoriteCount/id null pour la première page
+    List<RecipeSummaryDTO> findPopularSummaries(RecipeFilter filter, Long favoriteCount, Long id, int limit);
+
+    // Nombre de recettes par catégorie, avec tous les filtres sauf la catégorie
+    Map<RecipeCategory, Long> countByCategory(RecipeFilter filter);
+
+    // Nombre de recettes par difficulté, avec tous les filtres sauf la difficulté
+    Map<Integer, Long> countByDifficulty(RecipeFilter filter);
+}
@@ -0,0 +1,126 @@
+package com.gourmich.repo;
+
+import com.gourmich.dto.RecipeFilter;
+import com.gourmich.dto.RecipeSummaryDTO;
+import com.gourmich.models.Recipe;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.models.Users;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class RecipeFilterRepositoryImpl implements RecipeFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<RecipeSummaryDTO> findFilteredSummaries(RecipeFilter filter, LocalDateTime createdAt, Long id, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecipeSummaryDTO> query = cb.createQuery(RecipeSummaryDTO.class);
+        Root<Recipe> recipe = query.from(Recipe.class);
+        Join<Recipe, Users> author = recipe.join("author");
+
+        List<Predicate> predicates = predicates(cb, recipe, filter, true, true);
+        if (createdAt != null && id != null) {
+            // équivalent de (created_at, id) < (:createdAt, :id)
+            predicates.add(cb.or(
+                    cb.lessThan(recipe.get("createdAt"), createdAt),
+                    cb.and(cb.equal(recipe.get("createdAt"), createdAt), cb.lessThan(recipe.get("id"), id))
+            ));
+        }
+
+        query.select(summary(cb, recipe, author))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(recipe.get("createdAt")), cb.desc(recipe.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<RecipeSummaryDTO> findPopularSummaries(RecipeFilter filter, Long favoriteCount, Long id, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecipeSummaryDTO> query = cb.createQuery(RecipeSummaryDTO.class);
+        Root<Recipe> recipe = query.from(Recipe.class);
+        Join<Recipe, Users> author = recipe.join("author");
+
+        List<Predicate> predicates = predicates(cb, recipe, filter, true, true);
+        if (favoriteCount != null && id != null) {
+            // équivalent de (favorite_count, id) < (:favoriteCount, :id)
+            predicates.add(cb.or(
+                    cb.lessThan(recipe.get("favoriteCount"), favoriteCount),
+                    cb.and(cb.equal(recipe.get("favoriteCount"), favoriteCount), cb.lessThan(recipe.get("id"), id))
+            ));
+        }
+
+        query.select(summary(cb, recipe, author))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(recipe.get("favoriteCount")), cb.desc(recipe.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static CompoundSelection<RecipeSummaryDTO> summary(CriteriaBuilder cb, Root<Recipe> recipe,
+                                                               Join<Recipe, Users> author) {
+        return cb.construct(RecipeSummaryDTO.class,
+                recipe.get("id"), recipe.get("title"), recipe.get("description"), recipe.get("imageUrl"),
+                recipe.get("category"), recipe.get("difficulty"), recipe.get("cookingTime"),
+                author.get("username"), recipe.get("createdAt"), recipe.get("favoriteCount"));
+    }
+
+    @Override
+    public Map<RecipeCategory, Long> countByCategory(RecipeFilter filter) {
+        Map<RecipeCategory, Long> counts = new LinkedHashMap<>();
+        for (Tuple row : countBy("category", filter, false, true)) {
+            counts.put(row.get(0, RecipeCategory.class), row.get(1, Long.class));
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<Integer, Long> countByDifficulty(RecipeFilter filter) {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        for (Tuple row : countBy("difficulty", filter, true, false)) {
+            counts.put(row.get(0, Integer.class), row.get(1, Long.class));
+        }
+        return counts;
+    }
+
+    private List<Tuple> countBy(String attribute, RecipeFilter filter, boolean withCategory, boolean withDifficulty) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Recipe> recipe = query.from(Recipe.class);
+        Path<Object> key = recipe.get(attribute);
+
+        query.multiselect(key, cb.count(recipe))
+                .where(cb.and(predicates(cb, recipe, filter, withCategory, withDifficulty).toArray(Predicate[]::new)),
+                        cb.isNotNull(key))
+                .groupBy(key);
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static List<Predicate> predicates(CriteriaBuilder cb, Root<Recipe> recipe, RecipeFilter filter,
+                                              boolean withCategory, boolean withDifficulty) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (withCategory && filter.category() != null) {
+            predicates.add(cb.equal(recipe.get("category"), filter.category()));
+        }
+        if (withDifficulty && filter.difficultyMin() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(recipe.get("difficulty"), filter.difficultyMin()));
+        }
+        if (withDifficulty && filter.difficultyMax() != null) {
+            predicates.add(cb.lessThanOrEqualTo(recipe.get("difficulty"), filter.difficultyMax()));
+        }
+        if (filter.cookingTimeMax() != null) {
+            predicates.add(cb.lessThanOrEqualTo(recipe.get("cookingTime"), filter.cookingTimeMax()));
+        }
+        return predicates;
+    }
+}
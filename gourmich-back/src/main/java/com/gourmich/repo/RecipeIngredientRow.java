@@ -0,0 +1,14 @@
+package com.gourmich.repo;
+
+import com.gourmich.models.RecipeCategory;
+
+import java.time.LocalDateTime;
+
+// Une recette, son auteur et l'un de ses ingrédients (ingrédient null si la recette n'en a aucun).
+// Projection scalaire des lectures : aucune entité gérée, donc ni snapshot de dirty checking ni contexte
+// de persistance qui grossit.
+public record RecipeIngredientRow(Long id, String title, String description, String imageUrl, RecipeCategory category,
+                                  Integer difficulty, Long cookingTime, String instructions, String authorUsername,
+                                  Long version, LocalDateTime updatedAt, Long favoriteCount,
+                                  String ingredientName, Double ingredientQuantity, String ingredientUnit) {
+}
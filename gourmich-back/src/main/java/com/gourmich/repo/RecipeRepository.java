@@ -1,22 +1,200 @@
 package com.gourmich.repo;
 
+import com.gourmich.dto.RecipeSummaryDTO;
+import com.gourmich.dto.RecipeVersion;
 import com.gourmich.models.Recipe;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.AvailableHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+public interface RecipeRepository extends JpaRepository<Recipe, Long>, RecipeFilterRepository {
+    int EXPORT_FETCH_SIZE = 500;
+
+    // Lectures en projection : une ligne par ingrédient, regroupées par RecipeRowAssembler
+    String RECIPE_ROWS = "SELECT new com.gourmich.repo.RecipeIngredientRow(r.id, r.title, r.description, " +
+            "r.imageUrl, r.category, r.difficulty, r.cookingTime, r.instructions, a.username, r.version, " +
+            "r.updatedAt, r.favoriteCount, i.name, i.quantity, i.unit) " +
+            "FROM Recipe r JOIN r.author a LEFT JOIN r.ingredients i ";
+
     boolean existsByTitleAndAuthorId(String title, Long authorId);
 
+    // Dédoublonnage de l'import en masse : une requête par lot au lieu d'un existsBy par recette
+    @Query("SELECT r.title FROM Recipe r WHERE r.author.id = :authorId AND r.title IN :titles")
+    List<String> findTitlesByAuthorIdAndTitleIn(@Param("authorId") Long authorId,
+                                                @Param("titles") Collection<String> titles);
+
+    // Les chargements d'entités (modification, suppression) prennent ingrédients et auteur en une seule requête
+    @Override
+    @EntityGraph(Recipe.WITH_INGREDIENTS_AND_AUTHOR)
+    List<Recipe> findAll();
+
+    @Override
+    @EntityGraph(Recipe.WITH_INGREDIENTS_AND_AUTHOR)
+    Optional<Recipe> findById(Long id);
+
     List<Recipe> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
-    @Query("SELECT r FROM Recipe r " +
-            "LEFT JOIN FETCH r.ingredients " +
-            "LEFT JOIN FETCH r.author " +
-            "ORDER BY r.createdAt DESC")
-    List<Recipe> findLatestWithRelations(Pageable pageable);
+    // Dernières recettes en deux temps : les ids avec un vrai LIMIT SQL...
+    @Query("SELECT r.id FROM Recipe r ORDER BY r.createdAt DESC, r.id DESC")
+    List<Long> findLatestIds(Pageable pageable);
+
+    // ... puis leurs lignes, sans hydrater d'entités
+    @Query(RECIPE_ROWS + "WHERE r.id IN :ids ORDER BY r.id, i.sortOrder")
+    List<RecipeIngredientRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RECIPE_ROWS + "WHERE r.id = :id ORDER BY i.sortOrder")
+    List<RecipeIngredientRow> findRowsById(@Param("id") Long id);
+
+    // Triées par id, la liste complète est servie dans un ordre stable
+    @Query(RECIPE_ROWS + "ORDER BY r.id, i.sortOrder")
+    List<RecipeIngredientRow> findAllRows();
+
+    // Export du catalogue : lu par curseur, EXPORT_FETCH_SIZE lignes par aller-retour, triées par recette
+    // pour que chaque recette soit regroupée puis écrite avant de passer à la suivante
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query(RECIPE_ROWS + "ORDER BY r.id, i.sortOrder")
+    Stream<RecipeIngredientRow> streamAllRows();
+
+    // Versions seules, pour répondre aux requêtes conditionnelles sans charger ingrédients ni auteur
+    @Query("SELECT r.id AS id, r.version AS version, r.updatedAt AS updatedAt, r.favoriteCount AS favoriteCount " +
+            "FROM Recipe r WHERE r.id = :id")
+    Optional<RecipeVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT r.id AS id, r.version AS version, r.updatedAt AS updatedAt, r.favoriteCount AS favoriteCount " +
+            "FROM Recipe r ORDER BY r.createdAt DESC, r.id DESC")
+    List<RecipeVersion> findLatestVersions(Pageable pageable);
+
+    // Toute écriture fait bouger l'un des agrégats : INSERT (count, max id), UPDATE (somme des versions),
+    // DELETE (count, somme des versions), flush des favoris (somme des compteurs)
+    @Query("SELECT COUNT(r) AS recipeCount, MAX(r.id) AS maxId, MAX(r.updatedAt) AS maxUpdatedAt, " +
+            "SUM(r.version) AS versionSum, SUM(r.favoriteCount) AS favoriteCountSum FROM Recipe r")
+    CatalogRevisionRow findCatalogRevision();
+
+    // Première page du listing keyset (created_at, id), projetée directement en résumé
+    @Query("SELECT new com.gourmich.dto.RecipeSummaryDTO(r.id, r.title, r.description, r.imageUrl, " +
+            "r.category, r.difficulty, r.cookingTime, a.username, r.createdAt, r.favoriteCount) " +
+            "FROM Recipe r JOIN r.author a " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RecipeSummaryDTO> findSummaries(Pageable pageable);
+
+    // Pages suivantes : reprend strictement après la dernière ligne renvoyée
+    @Query("SELECT new com.gourmich.dto.RecipeSummaryDTO(r.id, r.title, r.description, r.imageUrl, " +
+            "r.category, r.difficulty, r.cookingTime, a.username, r.createdAt, r.favoriteCount) " +
+            "FROM Recipe r JOIN r.author a " +
+            "WHERE (r.createdAt, r.id) < (:createdAt, :id) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RecipeSummaryDTO> findSummariesBefore(@Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
+    @Query("SELECT new com.gourmich.dto.RecipeSummaryDTO(r.id, r.title, r.description, r.imageUrl, " +
+            "r.category, r.difficulty, r.cookingTime, a.username, r.createdAt, r.favoriteCount) " +
+            "FROM Recipe r JOIN r.author a " +
+            "WHERE r.id IN :ids")
+    List<RecipeSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Recherche plein texte PostgreSQL (V8) : titre, description et instructions via recipes.search_vector (GIN),
+    // noms d'ingrédients via leur index d'expression ; les recettes qui matchent des ingrédients remontent.
+    // Les candidats sont la réunion des deux sondes d'index : un OR sur une jointure externe forcerait un
+    // parcours complet de recipes. La tsquery passe par une sous-requête scalaire (InitPlan), calculée
+    // une fois et utilisable comme condition d'index.
+    @Query(nativeQuery = true, value = """
+            WITH query AS (
+                SELECT websearch_to_tsquery('french', :q) || websearch_to_tsquery('simple', :q) AS tsq
+            ),
+            candidates AS (
+                SELECT r.id AS recipe_id, 0 AS hits
+                FROM recipes r
+                WHERE r.search_vector @@ (SELECT tsq FROM query)
+                UNION ALL
+                SELECT i.recipe_id, COUNT(*) AS hits
+                FROM ingredients i
+                WHERE (to_tsvector('french', i.name) || to_tsvector('simple', i.name)) @@ (SELECT tsq FROM query)
+                GROUP BY i.recipe_id
+            ),
+            matches AS (
+                SELECT recipe_id, SUM(hits) AS hits
+                FROM candidates
+                GROUP BY recipe_id
+            )
+            SELECT r.id
+            FROM matches m
+            JOIN recipes r ON r.id = m.recipe_id
+            ORDER BY ts_rank(r.search_vector, (SELECT tsq FROM query)) + 0.1 * m.hits DESC, r.id DESC
+            LIMIT :limit OFFSET :offset
+            """)
+    List<Long> searchIdsFullText(@Param("q") String q, @Param("limit") int limit, @Param("offset") long offset);
+
+    // Variante portable (H2 en test) : LIKE insensible à la casse, les correspondances sur le titre d'abord
+    @Query(nativeQuery = true, value = """
+            SELECT r.id
+            FROM recipes r
+            WHERE LOWER(r.title) LIKE :pattern ESCAPE '\\'
+               OR LOWER(r.description) LIKE :pattern ESCAPE '\\'
+               OR LOWER(r.instructions) LIKE :pattern ESCAPE '\\'
+               OR EXISTS (SELECT 1 FROM ingredients i
+                          WHERE i.recipe_id = r.id AND LOWER(i.name) LIKE :pattern ESCAPE '\\')
+            ORDER BY CASE WHEN LOWER(r.title) LIKE :pattern ESCAPE '\\' THEN 0 ELSE 1 END,
+                     r.created_at DESC, r.id DESC
+            LIMIT :limit OFFSET :offset
+            """)
+    List<Long> searchIdsLike(@Param("pattern") String pattern, @Param("limit") int limit, @Param("offset") long offset);
+
+    // Accueil PostgreSQL (V10) : lecture de la vue matérialisée via son index (category, category_rank)
+    @Query(nativeQuery = true, value = """
+            SELECT category, recipe_count AS recipeCount, id, title, description, image_url AS imageUrl,
+                   difficulty, cooking_time AS cookingTime, author_username AS authorUsername, created_at AS createdAt
+            FROM recipe_category_overview
+            WHERE category_rank <= :perCategory
+            ORDER BY category, category_rank
+            """)
+    List<CategoryOverviewRow> findCategoryOverview(@Param("perCategory") int perCategory);
+
+    // Même résultat calculé à la volée, pour H2
+    @Query(nativeQuery = true, value = """
+            SELECT ranked.category, ranked.recipe_count AS recipeCount, ranked.id, ranked.title, ranked.description,
+                   ranked.image_url AS imageUrl, ranked.difficulty, ranked.cooking_time AS cookingTime,
+                   u.username AS authorUsername, ranked.created_at AS createdAt
+            FROM (
+                SELECT r.*,
+                       ROW_NUMBER() OVER (PARTITION BY r.category ORDER BY r.created_at DESC, r.id DESC) AS category_rank,
+                       COUNT(*) OVER (PARTITION BY r.category) AS recipe_count
+                FROM recipes r
+            ) ranked
+            JOIN users u ON u.id = ranked.author_id
+            WHERE ranked.category_rank <= :perCategory
+            ORDER BY ranked.category, ranked.category_rank
+            """)
+    List<CategoryOverviewRow> computeCategoryOverview(@Param("perCategory") int perCategory);
+
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "REFRESH MATERIALIZED VIEW CONCURRENTLY recipe_category_overview")
+    void refreshCategoryOverview();
+
+    // Recale favorite_count sur la table favorite ; seules les lignes qui ont dérivé sont réécrites
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            UPDATE recipes
+            SET favorite_count = (SELECT COUNT(*) FROM favorite f WHERE f.recipe_id = recipes.id)
+            WHERE favorite_count <> (SELECT COUNT(*) FROM favorite f WHERE f.recipe_id = recipes.id)
+            """)
+    int reconcileFavoriteCounts();
 }
@@ -2,6 +2,8 @@ package com.gourmich.repo;
 
 import com.gourmich.models.Users;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,6 +12,10 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<Users, Long> {
     Optional<Users> findByUsername(String username);
 
+    // Seul l'id est utile aux lectures de favoris : pas d'entité Users à hydrater
+    @Query("SELECT u.id FROM Users u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
     boolean existsByEmail(String email);
 
     boolean existsByUsername(String username);
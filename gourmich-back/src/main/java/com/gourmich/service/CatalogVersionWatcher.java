@@ -0,0 +1,64 @@
+package com.gourmich.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Les imports en ligne de commande (RecipeImportRunner) publient leurs événements dans leur propre processus :
+// ils font avancer catalog_version, que le serveur relit périodiquement pour reconstruire ses index et caches
+@Component
+public class CatalogVersionWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersionWatcher.class);
+
+    static final String READ_VERSION = "SELECT version FROM catalog_version WHERE id = 1";
+    static final String BUMP_VERSION = "UPDATE catalog_version SET version = version + 1 WHERE id = 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    // version vue au dernier passage ; null tant qu'elle n'a pas pu être lue
+    private Long seenVersion;
+
+    // Lue avant la construction des index (SmartLifecycle) : un import terminé entre-temps est vu au premier passage
+    @PostConstruct
+    void init() {
+        try {
+            seenVersion = readVersion();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to read the catalog version", e);
+        }
+    }
+
+    // Appelé par le processus d'import une fois ses lots écrits
+    public void bump() {
+        jdbcTemplate.update(BUMP_VERSION);
+    }
+
+    @Scheduled(fixedDelayString = "${gourmich.recipes.catalog.poll-delay:30s}")
+    public synchronized void pollVersion() {
+        Long version;
+        try {
+            version = readVersion();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to read the catalog version", e);
+            return;
+        }
+        if (seenVersion != null && !seenVersion.equals(version)) {
+            logger.info("Catalog version moved from {} to {}, reloading in-memory indexes", seenVersion, version);
+            recipeService.reloadCatalog();
+        }
+        seenVersion = version;
+    }
+
+    private Long readVersion() {
+        return jdbcTemplate.queryForObject(READ_VERSION, Long.class);
+    }
+}
@@ -0,0 +1,104 @@
+package com.gourmich.service;
+
+import com.gourmich.config.DatabaseVendor;
+import com.gourmich.dto.CategoryOverviewDTO;
+import com.gourmich.dto.RecipeSummaryDTO;
+import com.gourmich.event.RecipeCatalogReloadedEvent;
+import com.gourmich.event.RecipeChangedEvent;
+import com.gourmich.event.RecipesImportedEvent;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.repo.CategoryOverviewRow;
+import com.gourmich.repo.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Page d'accueil par catégorie, servie par la vue matérialisée recipe_category_overview sur PostgreSQL
+@Service
+public class CategoryOverviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryOverviewService.class);
+
+    // Profondeur de la vue (V10) : au-delà, elle n'a pas les lignes
+    static final int MAX_PER_CATEGORY = 12;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private DatabaseVendor databaseVendor;
+
+    @Value("${gourmich.recipes.overview.default-per-category:6}")
+    private int defaultPerCategory = 6;
+
+    // Vrai au démarrage : des écritures validées juste avant un arrêt n'ont peut-être pas été rafraîchies
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    public List<CategoryOverviewDTO> getOverview(Integer perCategory) {
+        int n = perCategory == null ? defaultPerCategory : perCategory;
+        if (n < 1 || n > MAX_PER_CATEGORY) {
+            throw new IllegalArgumentException("perCategory must be between 1 and " + MAX_PER_CATEGORY);
+        }
+
+        List<CategoryOverviewRow> rows = databaseVendor.isPostgreSql()
+                ? recipeRepository.findCategoryOverview(n)
+                : recipeRepository.computeCategoryOverview(n);
+
+        // toutes les catégories, y compris celles encore vides, dans l'ordre de l'enum
+        Map<RecipeCategory, CategoryOverviewDTO> overview = new EnumMap<>(RecipeCategory.class);
+        for (RecipeCategory category : RecipeCategory.values()) {
+            overview.put(category, new CategoryOverviewDTO(category, 0, new ArrayList<>()));
+        }
+        for (CategoryOverviewRow row : rows) {
+            RecipeCategory category = RecipeCategory.valueOf(row.getCategory());
+            CategoryOverviewDTO block = overview.get(category);
+            block.setRecipeCount(row.getRecipeCount());
+            block.getLatest().add(new RecipeSummaryDTO(row.getId(), row.getTitle(), row.getDescription(),
+                    row.getImageUrl(), category, row.getDifficulty(), row.getCookingTime(),
+                    row.getAuthorUsername(), row.getCreatedAt(), null));
+        }
+        return List.copyOf(overview.values());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        stale.set(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipesImported(RecipesImportedEvent event) {
+        stale.set(true);
+    }
+
+    @EventListener
+    public void onCatalogReloaded(RecipeCatalogReloadedEvent event) {
+        stale.set(true);
+    }
+
+    // Un seul rafraîchissement pour toutes les écritures de l'intervalle ; CONCURRENTLY laisse les lectures
+    // continuer sur l'ancien contenu pendant le recalcul
+    @Scheduled(fixedDelayString = "${gourmich.recipes.overview.refresh-delay:30s}")
+    public void refreshIfStale() {
+        if (!databaseVendor.isPostgreSql() || !stale.getAndSet(false)) {
+            return;
+        }
+        try {
+            recipeRepository.refreshCategoryOverview();
+        } catch (RuntimeException e) {
+            stale.set(true);
+            logger.warn("Unable to refresh the category overview", e);
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.gourmich.service;
 
+import com.gourmich.event.UserChangedEvent;
 import com.gourmich.models.UserPrincipal;
 import com.gourmich.models.Users;
 import com.gourmich.repo.UserRepository;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,11 +16,17 @@ import org.springframework.stereotype.Service;
 import java.util.Optional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     public UserRepository repo;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Users user = repo.findByUsername(username)
@@ -29,5 +39,20 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found."));
     }
 
+    // Appelé par DaoAuthenticationProvider après un login réussi quand le hash stocké a un coût obsolète
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        Users user = loadUserEntityByUsername(userDetails.getUsername());
+        user.setPassword(newPassword);
+        repo.save(user);
+        // invalidé après commit : une relecture concurrente ne peut pas remettre l'ancien hash en cache
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername()));
+        return new UserPrincipal(user);
+    }
 
+    // Utilisé par JwtFilter à chaque requête authentifiée : passe par le cache des principals
+    public UserPrincipal loadPrincipalByUsername(String username) {
+        return principalCache.get(username);
+    }
 }
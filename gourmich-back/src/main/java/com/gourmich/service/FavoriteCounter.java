@@ -0,0 +1,143 @@
+package com.gourmich.service;
+
+import com.gourmich.event.FavoriteCountsFlushedEvent;
+import com.gourmich.event.FavoriteToggledEvent;
+import com.gourmich.repo.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Compteurs de favoris par recette : agrégés en mémoire, puis reportés par lots dans recipes.favorite_count.
+// Une recette très demandée coûte un UPDATE par intervalle au lieu d'un par clic, sans file d'attente sur sa ligne.
+// Les deltas ne sont justes que si cette instance est seule à écrire : un arrêt brutal, une seconde instance ou
+// un recomptage concurrent les font dériver, ce que rattrapent le recomptage au démarrage et le recomptage périodique.
+@Service
+public class FavoriteCounter implements SmartLifecycle {
+
+    // Avant WebServerStartStopLifecycle (SMART_LIFECYCLE_PHASE - 1024) : démarré avant que Tomcat n'accepte
+    // de requêtes, arrêté après qu'il a fini de les servir
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private static final Logger logger = LoggerFactory.getLogger(FavoriteCounter.class);
+
+    static final String ADD_TO_COUNT = "UPDATE recipes SET favorite_count = favorite_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Import en ligne de commande (RecipeImportRunner) : le serveur qui tourne à côté garde des deltas non écrits,
+    // un recomptage ici les compterait une première fois avant que son flush ne les ajoute
+    @Value("${gourmich.recipes.import.file:}")
+    String importFile = "";
+
+    // deltas pas encore écrits ; LongAdder répartit les incréments concurrents sur une même recette
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    // Compté après validation seulement : un favori annulé par rollback ne fausse pas le compteur
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFavoriteToggled(FavoriteToggledEvent event) {
+        pending.computeIfAbsent(event.recipeId(), id -> new LongAdder()).add(event.delta());
+    }
+
+    // Recompte avant l'ouverture du port : un favori validé pendant le recomptage serait sinon compté
+    // par le COUNT(*) puis ajouté une seconde fois par le flush suivant
+    @Override
+    public void start() {
+        if (importFile.isEmpty()) {
+            reconcile();
+        }
+        running = true;
+    }
+
+    // Les deltas restants sont écrits une fois les dernières requêtes terminées
+    @Override
+    public void stop() {
+        flush();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // Les deltas encore en mémoire lors d'un arrêt brutal sont perdus : la table favorite fait foi au démarrage
+    public synchronized void reconcile() {
+        int fixed = recipeRepository.reconcileFavoriteCounts();
+        logger.info("Favorite counts reconciled, {} recipes corrected", fixed);
+    }
+
+    // Rattrape la dérive laissée par une autre instance ; les deltas locaux sont écrits juste avant le recomptage
+    @Scheduled(initialDelayString = "${gourmich.recipes.favorites.reconcile-delay:1h}",
+            fixedDelayString = "${gourmich.recipes.favorites.reconcile-delay:1h}")
+    public synchronized void reconcilePeriodically() {
+        if (!importFile.isEmpty()) {
+            return;
+        }
+        flush();
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${gourmich.recipes.favorites.flush-delay:5s}")
+    public synchronized void flush() {
+        // triés par id : les verrous de ligne sont toujours pris dans le même ordre
+        Map<Long, Long> deltas = new TreeMap<>();
+        pending.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                deltas.put(id, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> batch.add(new Object[]{delta, id}));
+        try {
+            // une seule transaction : le lot est appliqué en entier ou pas du tout, et peut donc être rejoué
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(ADD_TO_COUNT, batch);
+                // les caches de recettes servent favoriteCount : ils sont invalidés une fois le lot validé
+                eventPublisher.publishEvent(new FavoriteCountsFlushedEvent(Set.copyOf(deltas.keySet())));
+            });
+        } catch (RuntimeException e) {
+            deltas.forEach((id, delta) -> pending.computeIfAbsent(id, key -> new LongAdder()).add(delta));
+            logger.warn("Unable to flush {} favorite counters, retrying on next run", deltas.size(), e);
+        }
+    }
+}
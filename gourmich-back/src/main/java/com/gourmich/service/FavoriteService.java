@@ -1,25 +1,43 @@
 package com.gourmich.service;
 
+import com.gourmich.config.DatabaseVendor;
 import com.gourmich.dto.FavoriteDTO;
-import com.gourmich.models.Favorite;
-import com.gourmich.models.Recipe;
-import com.gourmich.models.Users;
+import com.gourmich.dto.FavoritePageDTO;
+import com.gourmich.event.FavoriteToggledEvent;
+import com.gourmich.exception.ResourceNotFoundException;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.models.UserPrincipal;
 import com.gourmich.repo.FavoriteRepository;
-import com.gourmich.repo.RecipeRepository;
 import com.gourmich.repo.UserRepository;
 import jakarta.transaction.Transactional;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class FavoriteService {
 
+    static final String UNIQUE_FAVORITE = "uc_favorite";
+    static final String RECIPE_FOREIGN_KEY = "fk_favorite_recipe";
+
     @Autowired
     private FavoriteRepository favoriteRepository;
 
@@ -27,94 +45,168 @@ public class FavoriteService {
     private UserRepository userRepository;
 
     @Autowired
-    private RecipeRepository recipeRepository;
+    private DatabaseVendor databaseVendor;
 
-    @Transactional
-    public List<FavoriteDTO> getFavoritesForCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated() || auth.getName() == null) {
-            throw new IllegalArgumentException("Utilisateur non authentifié");
-        }
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-        String username = auth.getName();
-        Users user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${gourmich.favorites.page.default-size:20}")
+    int defaultPageSize = 20;
 
-        List<Favorite> favorites = favoriteRepository.findFavoritesWithRecipeAndAuthor(user.getId());
-
-        return favorites.stream()
-                .map(fav -> {
-                    Recipe r = fav.getRecipe();
-                    return new FavoriteDTO(
-                            fav.getId(),
-                            r.getId(),
-                            r.getTitle(),
-                            r.getDescription(),
-                            r.getImageUrl(),
-                            r.getAuthor().getUsername(),
-                            r.getCookingTime(),
-                            r.getCategory()
-                    );
-                })
-                .collect(Collectors.toList());
+    @Value("${gourmich.favorites.page.max-size:100}")
+    int maxPageSize = 100;
+
+    @Transactional
+    public List<FavoriteDTO> getFavoritesForCurrentUser() {
+        return favoriteRepository.findFavoriteDtosByUserId(currentUserId());
     }
 
+    // Favoris les plus récents d'abord, par pages keyset (add_at, id) ; category null pour tout lister
     @Transactional
-    public FavoriteDTO toggleFavoriteForCurrentUser(Long recipeId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated() || auth.getName() == null) {
-            throw new IllegalArgumentException("Utilisateur non authentifié");
+    public FavoritePageDTO getFavoritePageForCurrentUser(RecipeCategory category, String cursor, Integer size) {
+        LocalDateTime addAt = null;
+        Long id = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = PageCursor.decode(cursor, 2);
+            try {
+                addAt = LocalDateTime.parse(parts[0]);
+                id = Long.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
         }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
 
-        String username = auth.getName();
-        Users user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
+        // une ligne de plus que demandé pour savoir s'il existe une page suivante
+        List<FavoriteDTO> rows = favoriteRepository.findFavoritePage(currentUserId(), category, addAt, id, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new FavoritePageDTO(rows, null);
+        }
+        List<FavoriteDTO> items = rows.subList(0, pageSize);
+        FavoriteDTO last = items.get(pageSize - 1);
+        return new FavoritePageDTO(items, PageCursor.encode(last.getAddAt(), last.getId()));
+    }
 
-        Optional<Favorite> existing = favoriteRepository.findByUserIdAndRecipeId(user.getId(), recipeId);
+    // Conservé pour le client actuel ; PUT et DELETE /api/favorites/{recipeId} le remplacent
+    public FavoriteDTO toggleFavoriteForCurrentUser(Long recipeId) {
+        Long userId = currentUserId();
 
-        if (existing.isPresent()) {
-            favoriteRepository.delete(existing.get());
+        if (Boolean.TRUE.equals(transactionTemplate.execute(status -> remove(userId, recipeId)))) {
             return null;
-        } else {
-            Recipe recipe = recipeRepository.findById(recipeId)
-                    .orElseThrow(() -> new RuntimeException("Recette non trouvée"));
-
-            Favorite favorite = new Favorite();
-            favorite.setUser(user);
-            favorite.setRecipe(recipe);
-
-            Favorite saved = favoriteRepository.save(favorite);
-
-            return new FavoriteDTO(
-                    saved.getId(),
-                    recipe.getId(),
-                    recipe.getTitle(),
-                    recipe.getDescription(),
-                    recipe.getImageUrl(),
-                    recipe.getAuthor().getUsername(),
-                    recipe.getCookingTime(),
-                    recipe.getCategory()
-            );
         }
+        addInOwnTransaction(userId, recipeId);
+        return favoriteRepository.findFavoriteDto(userId, recipeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recette non trouvée"));
+    }
+
+    // Idempotents : rejouer la requête (double clic, nouvel essai réseau) ne change rien ni n'échoue
+    public boolean addFavoriteForCurrentUser(Long recipeId) {
+        return addInOwnTransaction(currentUserId(), recipeId);
+    }
+
+    @Transactional
+    public boolean removeFavoriteForCurrentUser(Long recipeId) {
+        return remove(currentUserId(), recipeId);
     }
 
     @Transactional
     public boolean isAlreadyFavoriteForCurrentUser(Long recipeId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated() || auth.getName() == null) {
-            throw new IllegalArgumentException("Utilisateur non authentifié");
-        }
+        return favoriteRepository.existsByUserIdAndRecipeId(currentUserId(), recipeId);
+    }
 
-        String username = auth.getName();
-        Users user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
+    // Statut de favori de chaque recette demandée, dans l'ordre reçu
+    @Transactional
+    public Map<Long, Boolean> getFavoriteStatusForCurrentUser(Collection<Long> recipeIds) {
+        Long userId = currentUserId();
+        Set<Long> ids = recipeIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
 
-        return favoriteRepository.findByUserIdAndRecipeId(user.getId(), recipeId).isPresent();
+        Set<Long> favorites = new HashSet<>(favoriteRepository.findFavoriteRecipeIds(userId, ids));
+        Map<Long, Boolean> status = new LinkedHashMap<>();
+        ids.forEach(id -> status.put(id, favorites.contains(id)));
+        return status;
     }
 
     @Transactional
     public void removeFavorite(Long userId, Long recipeId) {
-        favoriteRepository.deleteByUserIdAndRecipeId(userId, recipeId);
+        remove(userId, recipeId);
+    }
+
+    // Une instruction qui échoue marque la transaction rollback-only : l'ajout a donc la sienne, et une violation
+    // de uc_favorite n'est interprétée qu'après son rollback. Sans ON CONFLICT (H2), deux ajouts simultanés
+    // passent tous deux le NOT EXISTS ; le perdant trouve le favori déjà présent.
+    private boolean addInOwnTransaction(Long userId, Long recipeId) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> add(userId, recipeId)));
+        } catch (DataIntegrityViolationException e) {
+            if (violates(e, UNIQUE_FAVORITE)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    // Une seule instruction, sans lecture préalable
+    private boolean add(Long userId, Long recipeId) {
+        int inserted;
+        try {
+            inserted = databaseVendor.isPostgreSql()
+                    ? favoriteRepository.insertIgnoringConflict(userId, recipeId)
+                    : favoriteRepository.insertIfAbsent(userId, recipeId);
+        } catch (DataIntegrityViolationException e) {
+            // fk_favorite_user (utilisateur supprimé encore en cache) et le reste remontent tels quels
+            if (violates(e, RECIPE_FOREIGN_KEY)) {
+                throw new ResourceNotFoundException("Recette non trouvée");
+            }
+            throw e;
+        }
+        if (inserted == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new FavoriteToggledEvent(recipeId, 1));
+        return true;
     }
 
-}
\ No newline at end of file
+    private boolean remove(Long userId, Long recipeId) {
+        if (favoriteRepository.deleteByUserIdAndRecipeId(userId, recipeId) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new FavoriteToggledEvent(recipeId, -1));
+        return true;
+    }
+
+    // Nom extrait par Hibernate s'il y parvient, sinon recherche dans le message du pilote
+    // (H2 préfixe ses index : UC_FAVORITE_INDEX_4)
+    static boolean violates(DataIntegrityViolationException e, String constraint) {
+        String name = constraint.toLowerCase(Locale.ROOT);
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(name)) {
+                return true;
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(name);
+    }
+
+    // Le JwtFilter pose un UserPrincipal venu du PrincipalCache : son id évite toute lecture de users.
+    // Les autres authentifications (tests, appels internes) retombent sur une recherche par nom.
+    private Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth.getName() == null) {
+            throw new IllegalArgumentException("Utilisateur non authentifié");
+        }
+        if (auth.getPrincipal() instanceof UserPrincipal principal && principal.getUser().getId() != null) {
+            return principal.getUser().getId();
+        }
+        return userRepository.findIdByUsername(auth.getName())
+                .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé"));
+    }
+}
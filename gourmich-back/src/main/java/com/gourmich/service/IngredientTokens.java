@@ -0,0 +1,43 @@
+package com.gourmich.service;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Normalisation des noms d'ingrédients (texte libre) en tokens comparables :
+// minuscules, sans accents, sans mots vides, pluriel simple retiré ("Pommes de terre" -> [pomme, terre])
+final class IngredientTokens {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "de", "du", "des", "la", "le", "les", "et", "au", "aux", "en", "un", "une",
+            "of", "the", "and"
+    );
+
+    private IngredientTokens() {}
+
+    static Set<String> of(String name) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (name == null) {
+            return tokens;
+        }
+        String folded = Normalizer.normalize(name.toLowerCase(Locale.ROOT)
+                        .replace("œ", "oe")
+                        .replace("æ", "ae"), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        for (String raw : folded.split("[^a-z0-9]+")) {
+            if (raw.length() < 2 || STOP_WORDS.contains(raw)) {
+                continue;
+            }
+            tokens.add(singular(raw));
+        }
+        return tokens;
+    }
+
+    private static String singular(String token) {
+        if (token.length() > 3 && (token.endsWith("s") || token.endsWith("x"))) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
@@ -1,15 +1,27 @@
 package com.gourmich.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -22,6 +34,19 @@ public class JWTService {
 
     private SecretKey key;
 
+    @Value("${gourmich.security.jwt.cache.maximum-size:10000}")
+    long verifiedCacheSize = 10_000;
+
+    @Autowired(required = false)
+    MeterRegistry meterRegistry;
+
+    // Construit une seule fois : le parser est immuable et thread-safe
+    private JwtParser parser;
+
+    // Empreinte SHA-256 du token -> claims déjà vérifiés ; chaque entrée expire à l'exp du token.
+    // Seul un token dont la signature a été vérifiée y entre : un token altéré a une autre empreinte.
+    private Cache<String, Claims> verifiedTokens;
+
     @PostConstruct
     public void init() {
         if (secretKey == null || secretKey.isBlank()) {
@@ -29,6 +54,15 @@ public class JWTService {
         } else {
             key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
         }
+        parser = Jwts.parser().verifyWith(key).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "security.jwt.verified");
+        }
     }
 
     public String generateToken(String username) {
@@ -38,10 +72,60 @@ public class JWTService {
     }
 
     SecretKey getKey() {
-        if (secretKey == null || secretKey.isBlank()) {
-            return key;
+        return key;
+    }
+
+    // Vérifie la signature et l'expiration en un seul parse, ou renvoie les claims d'un token déjà vérifié.
+    // Lève une JwtException (ExpiredJwtException, SignatureException...) si le token est invalide.
+    public Claims parseClaims(String token) {
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+        Claims claims = verify(token);
+        // un token sans exp sera refusé par validateToken : inutile de le garder
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    Claims verify(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private static boolean isExpired(Claims claims) {
+        return !claims.getExpiration().after(new Date());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Durée de vie d'une entrée = temps restant avant l'exp du token (seuls les tokens avec exp sont mis en cache)
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return Math.max(0, Duration.ofMillis(remainingMillis).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
     }
 
     public String extractUserName(String token) {
@@ -54,22 +138,27 @@ public class JWTService {
     }
 
     Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseClaims(token);
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUserName(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return validateToken(parseClaims(token), userDetails);
         } catch (Exception e) {
             return false;
         }
     }
 
+    // Claims déjà vérifiés par parseClaims : aucun nouveau calcul HMAC
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        String username = claims.getSubject();
+        Date expiration = claims.getExpiration();
+        return username != null
+                && username.equals(userDetails.getUsername())
+                && expiration != null
+                && expiration.after(new Date());
+    }
+
     public boolean isTokenExpired(String token) {
         try {
             return extractExpiration(token).before(new Date());
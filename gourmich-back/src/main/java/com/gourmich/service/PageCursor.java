@@ -0,0 +1,38 @@
+package com.gourmich.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Curseur de pagination keyset : valeurs de tri de la dernière ligne d'une page,
+// encodées en Base64url pour que le client les manipule comme un jeton opaque
+final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {}
+
+    static String encode(Object... values) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(values[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != expectedParts) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
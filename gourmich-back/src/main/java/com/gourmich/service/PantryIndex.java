@@ -0,0 +1,357 @@
+package com.gourmich.service;
+
+import com.gourmich.event.RecipeCatalogReloadedEvent;
+import com.gourmich.event.RecipeChangedEvent;
+import com.gourmich.event.RecipesImportedEvent;
+import com.gourmich.repo.IngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Index inversé en mémoire : token d'ingrédient -> ingrédients (recette, position) qui le contiennent.
+// Chaque recette occupe un emplacement dense, ce qui permet de compter la couverture d'un garde-manger
+// avec de simples tableaux au lieu de maps.
+@Component
+public class PantryIndex implements SmartLifecycle {
+
+    // Construit avant que Tomcat n'accepte de requêtes : /pantry ne répond jamais depuis un index vide
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private static final Logger logger = LoggerFactory.getLogger(PantryIndex.class);
+
+    // Recette candidate : nombre d'ingrédients couverts par le garde-manger sur son total
+    public record Match(long recipeId, int matched, int total) {
+        public int missing() {
+            return total - matched;
+        }
+    }
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::missing)
+            .thenComparing(Comparator.comparingInt(Match::matched).reversed())
+            .thenComparing(Comparator.comparingLong(Match::recipeId).reversed());
+
+    // Compteurs par emplacement réutilisés d'une requête à l'autre sur le même thread : seuls les emplacements
+    // touchés sont remis à zéro, une requête coûte ses postings et non la taille du catalogue
+    private static final ThreadLocal<int[]> COVERED = ThreadLocal.withInitial(() -> new int[256]);
+
+    private final IngredientRepository ingredientRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slotByRecipe = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private long[] recipeIds = new long[256];
+    private int[] ingredientTotals = new int[256];
+    // emplacement -> tokens de chacun de ses ingrédients (null si emplacement libre)
+    private List<Set<String>>[] ingredientTokens = newSlots(256);
+    private int slotCount;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    // Recettes réindexées pendant une reconstruction (null sinon) : la lecture de la base a pu les manquer,
+    // elles sont relues une fois le nouvel index en place
+    private Set<Long> changedDuringRebuild;
+
+    private volatile boolean running;
+
+    public PantryIndex(IngredientRepository ingredientRepository) {
+        this.ingredientRepository = ingredientRepository;
+    }
+
+    @Override
+    public void start() {
+        rebuild();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Set<Long> replay;
+        try {
+            Map<Long, List<String>> namesByRecipe = new HashMap<>();
+            for (Object[] row : ingredientRepository.findAllRecipeIdsAndNames()) {
+                namesByRecipe.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+
+            lock.writeLock().lock();
+            try {
+                slotByRecipe.clear();
+                freeSlots.clear();
+                postings.clear();
+                recipeIds = new long[Math.max(256, namesByRecipe.size())];
+                ingredientTotals = new int[recipeIds.length];
+                ingredientTokens = newSlots(recipeIds.length);
+                slotCount = 0;
+                namesByRecipe.forEach(this::add);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                replay = changedDuringRebuild;
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // relues après l'échange : une modification validée pendant la lecture n'est pas effacée
+        for (Long recipeId : replay) {
+            index(recipeId, ingredientRepository.findNamesByRecipeId(recipeId));
+        }
+        int recipeCount;
+        int tokenCount;
+        lock.readLock().lock();
+        try {
+            recipeCount = slotByRecipe.size();
+            tokenCount = postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+        logger.info("Pantry index built for {} recipes and {} tokens, {} changes replayed",
+                recipeCount, tokenCount, replay.size());
+    }
+
+    // Réindexe la recette une fois la transaction validée (supprimée si elle n'a plus d'ingrédients)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        index(event.recipeId(), ingredientRepository.findNamesByRecipeId(event.recipeId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipesImported(RecipesImportedEvent event) {
+        event.ingredientNamesByRecipe().forEach(this::index);
+    }
+
+    @EventListener
+    public void onCatalogReloaded(RecipeCatalogReloadedEvent event) {
+        rebuild();
+    }
+
+    public void index(long recipeId, Collection<String> ingredientNames) {
+        lock.writeLock().lock();
+        try {
+            recordDuringRebuild(recipeId);
+            removeInternal(recipeId);
+            add(recipeId, ingredientNames);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            recordDuringRebuild(recipeId);
+            removeInternal(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Recettes réalisables avec au plus maxMissing ingrédients manquants, les plus complètes d'abord
+    public List<Match> match(Collection<String> pantry, int maxMissing, int limit) {
+        Set<String> tokens = new HashSet<>();
+        for (String item : pantry) {
+            tokens.addAll(IngredientTokens.of(item));
+        }
+        if (tokens.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] covered = COVERED.get();
+            if (covered.length < slotCount) {
+                covered = new int[Math.max(slotCount, covered.length * 2)];
+                COVERED.set(covered);
+            }
+            int[] touched = new int[16];
+            int touchedCount = 0;
+            // ingrédients de plusieurs tokens : nombre de leurs tokens présents dans le garde-manger
+            Map<Long, Integer> partialHits = new HashMap<>();
+
+            try {
+                for (String token : tokens) {
+                    Postings list = postings.get(token);
+                    if (list == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < list.size; i++) {
+                        int slot = list.slots[i];
+                        int needed = list.tokenCounts[i];
+                        if (needed > 1) {
+                            long key = ((long) slot << 32) | list.ingredients[i];
+                            if (partialHits.merge(key, 1, Integer::sum) < needed) {
+                                continue;
+                            }
+                        }
+                        if (covered[slot]++ == 0) {
+                            if (touchedCount == touched.length) {
+                                touched = Arrays.copyOf(touched, touchedCount * 2);
+                            }
+                            touched[touchedCount++] = slot;
+                        }
+                    }
+                }
+
+                // tas borné : on ne trie jamais plus de limit candidats
+                PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+                for (int i = 0; i < touchedCount; i++) {
+                    int slot = touched[i];
+                    int total = ingredientTotals[slot];
+                    if (total - covered[slot] > maxMissing) {
+                        continue;
+                    }
+                    best.add(new Match(recipeIds[slot], covered[slot], total));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+                List<Match> result = new ArrayList<>(best);
+                result.sort(RANKING);
+                return result;
+            } finally {
+                for (int i = 0; i < touchedCount; i++) {
+                    covered[touched[i]] = 0;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // À appeler sous verrou d'écriture
+    private void recordDuringRebuild(long recipeId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(recipeId);
+        }
+    }
+
+    // À appeler sous verrou d'écriture
+    private void add(long recipeId, Collection<String> ingredientNames) {
+        List<Set<String>> ingredients = new ArrayList<>();
+        Set<Set<String>> seen = new HashSet<>();
+        for (String name : ingredientNames) {
+            Set<String> tokens = IngredientTokens.of(name);
+            if (!tokens.isEmpty() && seen.add(tokens)) {
+                ingredients.add(tokens);
+            }
+        }
+        if (ingredients.isEmpty()) {
+            return;
+        }
+
+        int slot = allocateSlot();
+        recipeIds[slot] = recipeId;
+        ingredientTotals[slot] = ingredients.size();
+        ingredientTokens[slot] = ingredients;
+        slotByRecipe.put(recipeId, slot);
+        for (int i = 0; i < ingredients.size(); i++) {
+            Set<String> tokens = ingredients.get(i);
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, t -> new Postings()).add(slot, i, tokens.size());
+            }
+        }
+    }
+
+    private void removeInternal(long recipeId) {
+        Integer slot = slotByRecipe.remove(recipeId);
+        if (slot == null) {
+            return;
+        }
+        for (Set<String> ingredient : ingredientTokens[slot]) {
+            for (String token : ingredient) {
+                Postings list = postings.get(token);
+                if (list != null && list.removeSlot(slot)) {
+                    postings.remove(token);
+                }
+            }
+        }
+        ingredientTokens[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (slotCount == recipeIds.length) {
+            recipeIds = Arrays.copyOf(recipeIds, slotCount * 2);
+            ingredientTotals = Arrays.copyOf(ingredientTotals, slotCount * 2);
+            ingredientTokens = Arrays.copyOf(ingredientTokens, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Set<String>>[] newSlots(int size) {
+        return (List<Set<String>>[]) new List[size];
+    }
+
+    // Liste de postings en tableaux parallèles (emplacement de recette, position de l'ingrédient,
+    // nombre de tokens de l'ingrédient) : le parcours d'une requête ne déréférence aucun objet
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int[] ingredients = new int[4];
+        private int[] tokenCounts = new int[4];
+        private int size;
+
+        void add(int slot, int ingredient, int tokenCount) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                ingredients = Arrays.copyOf(ingredients, size * 2);
+                tokenCounts = Arrays.copyOf(tokenCounts, size * 2);
+            }
+            slots[size] = slot;
+            ingredients[size] = ingredient;
+            tokenCounts[size] = tokenCount;
+            size++;
+        }
+
+        // Retire toutes les entrées de l'emplacement ; renvoie true si la liste est devenue vide
+        boolean removeSlot(int slot) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (slots[i] != slot) {
+                    slots[kept] = slots[i];
+                    ingredients[kept] = ingredients[i];
+                    tokenCounts[kept] = tokenCounts[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return size == 0;
+        }
+    }
+}
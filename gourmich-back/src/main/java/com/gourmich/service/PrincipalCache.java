@@ -0,0 +1,56 @@
+package com.gourmich.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.gourmich.event.UserChangedEvent;
+import com.gourmich.models.UserPrincipal;
+import com.gourmich.repo.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Cache des principals authentifiés par JwtFilter, pour éviter un SELECT users à chaque requête.
+// TTL court : un compte modifié hors application finit toujours par être relu.
+@Component
+public class PrincipalCache {
+
+    private final LoadingCache<String, UserPrincipal> principals;
+
+    public PrincipalCache(@Value("${gourmich.cache.principals.maximum-size:10000}") long maximumSize,
+                          @Value("${gourmich.cache.principals.expire-after-write:60s}") Duration expireAfterWrite,
+                          UserRepository userRepository,
+                          MeterRegistry meterRegistry) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(username -> userRepository.findByUsername(username)
+                        .map(UserPrincipal::new)
+                        .orElseThrow(() -> new UsernameNotFoundException("User not found.")));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "security.principals");
+    }
+
+    public UserPrincipal get(String username) {
+        return principals.get(username);
+    }
+
+    public void invalidate(String username) {
+        principals.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        principals.invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.username());
+    }
+}
@@ -0,0 +1,152 @@
+package com.gourmich.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gourmich.dto.IngredientDTO;
+import com.gourmich.dto.RecipeDTO;
+import com.gourmich.dto.RecipeVersion;
+import com.gourmich.event.FavoriteCountsFlushedEvent;
+import com.gourmich.event.RecipeCatalogReloadedEvent;
+import com.gourmich.event.RecipeChangedEvent;
+import com.gourmich.event.RecipesImportedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Cache lecture des recettes les plus consultées (détail et dernières recettes).
+// RecipeDTO est mutable et une entrée est partagée entre requêtes : chaque lecture reçoit sa propre copie,
+// les lectures sans chargement (peek) une vue RecipeVersion sans setters.
+// invalidateAll de Caffeine n'écarte pas un chargement déjà en cours : chaque entrée porte la génération
+// à laquelle son chargement a commencé, et une entrée antérieure à la dernière invalidation est ignorée.
+@Component
+public class RecipeCache {
+
+    private record Entry<V>(long generation, V value) {
+    }
+
+    private final Cache<Long, Entry<RecipeDTO>> details;
+    private final Cache<Integer, Entry<List<RecipeDTO>>> latest;
+    private final AtomicLong detailsGeneration = new AtomicLong();
+    private final AtomicLong latestGeneration = new AtomicLong();
+
+    public RecipeCache(@Value("${gourmich.cache.recipes.maximum-size:1000}") long maximumSize,
+                       @Value("${gourmich.cache.recipes.expire-after-write:10m}") Duration expireAfterWrite,
+                       MeterRegistry meterRegistry) {
+        this.details = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.latest = Caffeine.newBuilder()
+                .maximumSize(64)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, details, "recipes.detail");
+        CaffeineCacheMetrics.monitor(meterRegistry, latest, "recipes.latest");
+    }
+
+    public Optional<RecipeDTO> getDetail(Long id, Function<Long, Optional<RecipeDTO>> loader) {
+        // une recette absente n'est pas mise en cache (le loader renvoie null)
+        return Optional.ofNullable(get(details, detailsGeneration, id, key -> loader.apply(key).orElse(null)))
+                .map(RecipeCache::copy);
+    }
+
+    public List<RecipeDTO> getLatest(int n, Function<Integer, List<RecipeDTO>> loader) {
+        return get(latest, latestGeneration, n, loader).stream().map(RecipeCache::copy).toList();
+    }
+
+    // Lecture sans chargement, pour dériver l'ETag de ce que le cache servirait
+    public Optional<RecipeVersion> peekDetail(Long id) {
+        return Optional.ofNullable(peek(details, detailsGeneration, id));
+    }
+
+    public Optional<List<RecipeVersion>> peekLatest(int n) {
+        return Optional.ofNullable(peek(latest, latestGeneration, n)).map(List::<RecipeVersion>copyOf);
+    }
+
+    // N'invalide qu'une fois la transaction validée, pour ne jamais recharger un état non commité.
+    // invalidate(id) attend la fin d'un chargement en cours de la même clé : seul invalidateAll a besoin de la génération
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        details.invalidate(event.recipeId());
+        invalidateAll(latest, latestGeneration);
+    }
+
+    // Seuls les détails et listes contenant une recette du lot sont retirés. Une liste en cours de chargement
+    // n'est pas encore visible : la génération avance comme pour invalidateAll, et les listes valides qui
+    // ne contiennent aucune recette du lot sont reportées sur la nouvelle génération.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFavoriteCountsFlushed(FavoriteCountsFlushedEvent event) {
+        details.invalidateAll(event.recipeIds());
+        long previous = latestGeneration.getAndIncrement();
+        for (Integer n : latest.asMap().keySet()) {
+            latest.asMap().computeIfPresent(n, (k, entry) -> entry.generation() < previous
+                    || entry.value().stream().anyMatch(recipe -> event.recipeIds().contains(recipe.getId()))
+                    ? null : new Entry<>(previous + 1, entry.value()));
+        }
+    }
+
+    // Catalogue modifié hors de cette instance : on ne sait pas quelles entrées ont changé
+    @EventListener
+    public void onCatalogReloaded(RecipeCatalogReloadedEvent event) {
+        invalidateAll(details, detailsGeneration);
+        invalidateAll(latest, latestGeneration);
+    }
+
+    // Les recettes importées sont neuves : aucun détail en cache, seules les dernières recettes changent
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipesImported(RecipesImportedEvent event) {
+        invalidateAll(latest, latestGeneration);
+    }
+
+    // Génération relevée avant le chargement : une invalidation survenue pendant la lecture en base la dépasse
+    private static <K, V> V get(Cache<K, Entry<V>> cache, AtomicLong generation, K key, Function<K, V> loader) {
+        long current = generation.get();
+        Entry<V> entry = cache.get(key, k -> load(current, k, loader));
+        if (entry == null || entry.generation() >= current) {
+            return entry == null ? null : entry.value();
+        }
+        // chargée avant la dernière invalidation : relue sous le verrou de la clé, comme Cache.get, sauf si
+        // une entrée au moins aussi récente est arrivée entre-temps
+        Entry<V> fresh = cache.asMap().compute(key, (k, old) ->
+                old != null && old.generation() >= current ? old : load(current, k, loader));
+        return fresh == null ? null : fresh.value();
+    }
+
+    private static <K, V> Entry<V> load(long generation, K key, Function<K, V> loader) {
+        V value = loader.apply(key);
+        return value == null ? null : new Entry<>(generation, value);
+    }
+
+    private static <K, V> V peek(Cache<K, Entry<V>> cache, AtomicLong generation, K key) {
+        Entry<V> entry = cache.getIfPresent(key);
+        return entry == null || entry.generation() < generation.get() ? null : entry.value();
+    }
+
+    private static RecipeDTO copy(RecipeDTO dto) {
+        List<IngredientDTO> ingredients = dto.getIngredients() == null ? null : dto.getIngredients().stream()
+                .map(ingredient -> new IngredientDTO(ingredient.getName(), ingredient.getQuantity(), ingredient.getUnit()))
+                .toList();
+        return new RecipeDTO(dto.getId(), dto.getTitle(), dto.getDescription(), dto.getImageUrl(), dto.getCategory(),
+                dto.getDifficulty(), dto.getCookingTime(), ingredients, dto.getInstructions(), dto.getAuthorUsername(),
+                dto.getVersion(), dto.getUpdatedAt(), dto.getFavoriteCount());
+    }
+
+    // Génération relevée avant le vidage : un chargement encore en cours sera stocké, mais ignoré
+    private static <K, V> void invalidateAll(Cache<K, Entry<V>> cache, AtomicLong generation) {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,59 @@
+package com.gourmich.service;
+
+import com.gourmich.exception.ServerBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Un export garde une connexion et une transaction ouvertes pendant tout le flux : au plus
+// maxConcurrent à la fois, au-delà ServerBusyException immédiate plutôt que d'épuiser le pool
+@Component
+public class RecipeExportLimiter {
+
+    private final Semaphore permits;
+
+    public RecipeExportLimiter(@Value("${gourmich.recipes.export.max-concurrent:2}") int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("gourmich.recipes.export.max-concurrent must be at least 1");
+        }
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public Permit acquire() {
+        if (!permits.tryAcquire()) {
+            throw new ServerBusyException("Too many exports in progress, please retry later");
+        }
+        return new Permit();
+    }
+
+    // Rendue par le flux une fois démarré, ou à la fin de la requête asynchrone s'il n'a jamais démarré
+    // (tâche rejetée, client parti). Un délai dépassé termine la requête sans arrêter un flux en cours :
+    // la place reste prise tant que celui-ci tient sa connexion.
+    public final class Permit {
+
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        // false si la requête s'est déjà terminée et a rendu la place : le flux ne doit pas démarrer
+        public boolean start() {
+            return started.compareAndSet(false, true);
+        }
+
+        public void releaseIfNotStarted() {
+            if (started.compareAndSet(false, true)) {
+                release();
+            }
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
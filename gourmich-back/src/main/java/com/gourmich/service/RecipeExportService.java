@@ -0,0 +1,71 @@
+package com.gourmich.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gourmich.dto.RecipeDTO;
+import com.gourmich.repo.RecipeIngredientRow;
+import com.gourmich.repo.RecipeRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Export NDJSON du catalogue complet, une recette par ligne, au format accepté par l'import en masse.
+// Les lignes arrivent par curseur et sont regroupées recette par recette : la mémoire utilisée ne dépend
+// que de la plus grosse recette, pas de la taille du catalogue.
+@Service
+public class RecipeExportService {
+
+    // recettes écrites entre deux flush vers le client
+    private static final int FLUSH_EVERY = 100;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Le Stream doit rester dans la transaction : PostgreSQL n'utilise le fetch size qu'hors autocommit
+    @Transactional
+    public int exportRecipes(OutputStream out) throws IOException {
+        // pas de flush à chaque recette : les écritures sont regroupées, voir FLUSH_EVERY
+        ObjectWriter writer = objectMapper.writerFor(RecipeDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        int written = 0;
+        RecipeRowAssembler assembler = new RecipeRowAssembler();
+        try (Stream<RecipeIngredientRow> rows = recipeRepository.streamAllRows()) {
+            Iterator<RecipeIngredientRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                RecipeDTO completed = assembler.add(iterator.next());
+                if (completed != null) {
+                    write(writer, generator, completed);
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        }
+        RecipeDTO last = assembler.finish();
+        if (last != null) {
+            write(writer, generator, last);
+            written++;
+        }
+        generator.flush();
+        return written;
+    }
+
+    private static void write(ObjectWriter writer, JsonGenerator generator, RecipeDTO recipe) throws IOException {
+        writer.writeValue(generator, recipe);
+        generator.writeRaw('\n');
+    }
+}
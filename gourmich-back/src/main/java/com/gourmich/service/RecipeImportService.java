@@ -0,0 +1,270 @@
+package com.gourmich.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gourmich.dto.IngredientDTO;
+import com.gourmich.dto.RecipeDTO;
+import com.gourmich.dto.RecipeImportRejectDTO;
+import com.gourmich.dto.RecipeImportReportDTO;
+import com.gourmich.event.RecipesImportedEvent;
+import com.gourmich.models.Ingredient;
+import com.gourmich.models.Recipe;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.models.Users;
+import com.gourmich.repo.RecipeRepository;
+import com.gourmich.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Import en masse de recettes depuis un tableau JSON ou un flux NDJSON. Le fichier est lu enregistrement
+// par enregistrement avec le JsonParser de Jackson, sans jamais être chargé en entier ; les recettes valides
+// sont écrites par lots, chacun dans sa transaction, avec une seule requête de dédoublonnage par lot.
+// Le contexte de persistance est vidé après chaque lot : avec open-in-view, il vit le temps de la requête
+// et garderait sinon toutes les recettes importées en mémoire, re-vérifiées à chaque commit.
+@Service
+public class RecipeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportService.class);
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${gourmich.recipes.import.chunk-size:500}")
+    int chunkSize = 500;
+
+    @Value("${gourmich.recipes.import.max-reported-rejects:1000}")
+    int maxReportedRejects = 1000;
+
+    // Import au nom de l'utilisateur connecté
+    public RecipeImportReportDTO importRecipes(InputStream input) throws IOException {
+        return importRecipes(input, SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    public RecipeImportReportDTO importRecipes(InputStream input, String username) throws IOException {
+        Users author = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("Authenticated user not found"));
+        ImportRun run = new ImportRun(author);
+
+        try (JsonParser parser = objectMapper.createParser(input)) {
+            JsonToken token = firstToken(parser);
+            // enregistrement auquel imputer une erreur de syntaxe
+            int record = 1;
+            try {
+                if (token == JsonToken.START_ARRAY) {
+                    token = parser.nextToken();
+                }
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    record = ++run.received;
+                    if (token == JsonToken.START_OBJECT) {
+                        accept(run, record, parser.readValueAsTree());
+                    } else {
+                        parser.skipChildren();
+                        run.reject(record, null, "Record is not a JSON object");
+                    }
+                    if (run.pending.size() >= chunkSize) {
+                        flush(run);
+                    }
+                    record = run.received + 1;
+                    token = parser.nextToken();
+                }
+            } catch (JsonProcessingException e) {
+                // le flux n'est plus lisible : on garde ce qui a été validé jusque-là et on s'arrête
+                run.reject(record, null, "Malformed JSON at line " + e.getLocation().getLineNr()
+                        + ", import stopped: " + e.getOriginalMessage());
+            }
+        }
+        flush(run);
+        return run.report();
+    }
+
+    private JsonToken firstToken(JsonParser parser) throws IOException {
+        JsonToken token;
+        try {
+            token = parser.nextToken();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (token != null && token != JsonToken.START_ARRAY && token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected a JSON array of recipes or one recipe object per line");
+        }
+        return token;
+    }
+
+    private void accept(ImportRun run, int record, JsonNode node) {
+        String title = node.path("title").isTextual() ? node.get("title").asText() : null;
+        try {
+            RecipeCategory.fromValue(node.path("category").isTextual() ? node.get("category").asText() : null);
+        } catch (IllegalArgumentException e) {
+            run.reject(record, title, e.getMessage());
+            return;
+        }
+
+        RecipeDTO dto;
+        try {
+            dto = objectMapper.treeToValue(node, RecipeDTO.class);
+        } catch (JsonProcessingException e) {
+            run.reject(record, title, "Invalid record: " + e.getOriginalMessage());
+            return;
+        }
+
+        Set<ConstraintViolation<RecipeDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            run.reject(record, title, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" ")));
+            return;
+        }
+        // IngredientDTO n'a pas de contraintes : une ligne incomplète ferait échouer tout le lot à l'INSERT
+        if (dto.getIngredients().stream().anyMatch(ing -> ing == null || ing.getName() == null
+                || ing.getName().isBlank() || ing.getUnit() == null)) {
+            run.reject(record, title, "Every ingredient needs a name and a unit.");
+            return;
+        }
+        if (!run.pendingTitles.add(dto.getTitle())) {
+            run.reject(record, title, "Duplicate title in this import: " + dto.getTitle());
+            return;
+        }
+        run.pending.add(new PendingRecipe(record, dto));
+    }
+
+    private void flush(ImportRun run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+        List<PendingRecipe> chunk = run.pending;
+        run.pending = new ArrayList<>();
+        run.pendingTitles.clear();
+
+        try {
+            Set<String> existing = transactionTemplate.execute(status -> writeChunk(run.author, chunk));
+            for (PendingRecipe pending : chunk) {
+                if (existing.contains(pending.dto().getTitle())) {
+                    run.reject(pending.record(), pending.dto().getTitle(),
+                            "This user already created a recipe with the title: " + pending.dto().getTitle());
+                } else {
+                    run.imported++;
+                }
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Recipe import chunk of {} records rolled back", chunk.size(), e);
+            for (PendingRecipe pending : chunk) {
+                run.reject(pending.record(), pending.dto().getTitle(), "Chunk could not be saved, record not imported");
+            }
+        } finally {
+            // le lot est commité (ou annulé) : ses recettes et ingrédients n'ont plus à rester gérés
+            entityManager.clear();
+        }
+        logger.info("Recipe import for {}: {} records read, {} imported, {} rejected",
+                run.author.getUsername(), run.received, run.imported, run.rejected);
+    }
+
+    // Renvoie les titres déjà présents pour l'auteur, non insérés
+    private Set<String> writeChunk(Users author, List<PendingRecipe> chunk) {
+        Set<String> existing = new HashSet<>(recipeRepository.findTitlesByAuthorIdAndTitleIn(author.getId(),
+                chunk.stream().map(pending -> pending.dto().getTitle()).toList()));
+
+        List<Recipe> recipes = new ArrayList<>(chunk.size());
+        for (PendingRecipe pending : chunk) {
+            if (!existing.contains(pending.dto().getTitle())) {
+                recipes.add(toEntity(pending.dto(), author));
+            }
+        }
+        // ids tirés par blocs de la séquence : les INSERT partent en batch JDBC au commit
+        recipeRepository.saveAll(recipes);
+
+        Map<Long, List<String>> ingredientNames = new HashMap<>();
+        for (Recipe recipe : recipes) {
+            ingredientNames.put(recipe.getId(), recipe.getIngredients().stream().map(Ingredient::getName).toList());
+        }
+        eventPublisher.publishEvent(new RecipesImportedEvent(ingredientNames));
+        return existing;
+    }
+
+    private Recipe toEntity(RecipeDTO dto, Users author) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(dto.getTitle());
+        recipe.setDescription(dto.getDescription());
+        recipe.setImageUrl(dto.getImageUrl());
+        recipe.setCategory(dto.getCategory());
+        recipe.setDifficulty(dto.getDifficulty());
+        recipe.setCookingTime(dto.getCookingTime());
+        recipe.setInstructions(dto.getInstructions());
+        recipe.setAuthor(author);
+        List<Ingredient> ingredients = new ArrayList<>(dto.getIngredients().size());
+        for (IngredientDTO ingDto : dto.getIngredients()) {
+            Ingredient ingredient = new Ingredient(ingDto.getName(), ingDto.getQuantity(), ingDto.getUnit(), recipe);
+            ingredient.setSortOrder(ingredients.size());
+            ingredients.add(ingredient);
+        }
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+
+    private record PendingRecipe(int record, RecipeDTO dto) {
+    }
+
+    private class ImportRun {
+        final Users author;
+        final List<RecipeImportRejectDTO> rejects = new ArrayList<>();
+        List<PendingRecipe> pending = new ArrayList<>();
+        final Set<String> pendingTitles = new HashSet<>();
+        int received;
+        int imported;
+        int rejected;
+
+        ImportRun(Users author) {
+            this.author = author;
+        }
+
+        void reject(int record, String title, String reason) {
+            rejected++;
+            if (rejects.size() < maxReportedRejects) {
+                rejects.add(new RecipeImportRejectDTO(record, title, reason));
+            }
+        }
+
+        RecipeImportReportDTO report() {
+            // les doublons en base ne sont connus qu'à l'écriture du lot : on remet les rejets dans l'ordre du fichier
+            rejects.sort(Comparator.comparingInt(RecipeImportRejectDTO::getRecord));
+            return new RecipeImportReportDTO(received, imported, rejected, rejects);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.gourmich.service;
+
+import com.gourmich.dto.RecipeVersion;
+import com.gourmich.models.Recipe;
+import com.gourmich.repo.CatalogRevisionRow;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+
+// Validateurs HTTP d'une représentation de recettes. ETag fort en deux parties, dans l'ordre de la réponse :
+// "<(id, version)>-<favoriteCount>". Le tout sert aux If-None-Match ; If-Match ne compare que la première
+// partie, pour qu'un favori ajouté entre la lecture et l'édition ne fasse pas refuser la modification.
+// Last-Modified = modification la plus récente (-1 si inconnue)
+public record RecipeRevision(String eTag, long lastModified) {
+
+    public static RecipeRevision of(List<? extends RecipeVersion> recipes) {
+        Digests digests = new Digests();
+        LocalDateTime latest = null;
+        for (RecipeVersion recipe : recipes) {
+            latest = digests.add(latest, recipe.getId(), recipe.getVersion(), recipe.getUpdatedAt(),
+                    recipe.getFavoriteCount());
+        }
+        return digests.build(latest);
+    }
+
+    // L'entité n'implémente pas RecipeVersion : Spring Data prendrait sinon les projections RecipeVersion
+    // du repository pour des lectures d'entités
+    public static RecipeRevision of(Recipe recipe) {
+        Digests digests = new Digests();
+        return digests.build(digests.add(null, recipe.getId(), recipe.getVersion(), recipe.getUpdatedAt(),
+                recipe.getFavoriteCount()));
+    }
+
+    // Liste complète : ETag tiré des agrégats de la table. Deux favoris déplacés d'une recette à l'autre
+    // dans le même flush laissent la somme inchangée ; le prochain flush ou la prochaine écriture la fait bouger.
+    public static RecipeRevision of(CatalogRevisionRow catalog) {
+        Digests digests = new Digests();
+        digests.edits.update((catalog.getRecipeCount() + ":" + catalog.getMaxId() + ":" + catalog.getVersionSum() + ";")
+                .getBytes(StandardCharsets.US_ASCII));
+        digests.counts.update((catalog.getFavoriteCountSum() + ";").getBytes(StandardCharsets.US_ASCII));
+        return digests.build(catalog.getMaxUpdatedAt());
+    }
+
+    // Comparaison forte d'un en-tête If-Match sur la partie (id, version) : "*" accepte l'état courant,
+    // une étiquette faible (W/) jamais
+    public boolean matches(String ifMatch) {
+        String edits = editPart(eTag);
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("\"") && editPart(tag).equals(edits))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String editPart(String tag) {
+        int separator = tag.indexOf('-');
+        return separator < 0 ? tag : tag.substring(0, separator);
+    }
+
+    private static final class Digests {
+
+        private final MessageDigest edits = sha256();
+        private final MessageDigest counts = sha256();
+
+        LocalDateTime add(LocalDateTime latest, Long id, Long version, LocalDateTime updatedAt, Long favoriteCount) {
+            edits.update((id + ":" + version + ";").getBytes(StandardCharsets.US_ASCII));
+            counts.update((favoriteCount + ";").getBytes(StandardCharsets.US_ASCII));
+            return updatedAt != null && (latest == null || updatedAt.isAfter(latest)) ? updatedAt : latest;
+        }
+
+        RecipeRevision build(LocalDateTime latest) {
+            String eTag = "\"" + HexFormat.of().formatHex(edits.digest(), 0, 16)
+                    + "-" + HexFormat.of().formatHex(counts.digest(), 0, 8) + "\"";
+            long lastModified = latest == null ? -1 : latest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return new RecipeRevision(eTag, lastModified);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
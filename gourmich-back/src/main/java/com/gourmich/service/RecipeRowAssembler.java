@@ -0,0 +1,54 @@
+package com.gourmich.service;
+
+import com.gourmich.dto.IngredientDTO;
+import com.gourmich.dto.RecipeDTO;
+import com.gourmich.repo.RecipeIngredientRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Regroupe les lignes (recette, ingrédient) consécutives d'une même recette en un RecipeDTO.
+// Les lignes doivent arriver triées par recette ; seule la recette en cours est gardée en mémoire.
+final class RecipeRowAssembler {
+
+    private RecipeDTO current;
+
+    // Renvoie la recette précédente quand la ligne en commence une nouvelle, sinon null
+    RecipeDTO add(RecipeIngredientRow row) {
+        RecipeDTO completed = null;
+        if (current == null || !current.getId().equals(row.id())) {
+            completed = current;
+            current = new RecipeDTO(row.id(), row.title(), row.description(), row.imageUrl(), row.category(),
+                    row.difficulty(), row.cookingTime(), new ArrayList<>(), row.instructions(), row.authorUsername(),
+                    row.version(), row.updatedAt(), row.favoriteCount());
+        }
+        if (row.ingredientName() != null) {
+            current.getIngredients().add(new IngredientDTO(row.ingredientName(), row.ingredientQuantity(),
+                    row.ingredientUnit()));
+        }
+        return completed;
+    }
+
+    // Dernière recette en cours, null s'il n'y avait aucune ligne
+    RecipeDTO finish() {
+        RecipeDTO last = current;
+        current = null;
+        return last;
+    }
+
+    static List<RecipeDTO> assemble(List<RecipeIngredientRow> rows) {
+        RecipeRowAssembler assembler = new RecipeRowAssembler();
+        List<RecipeDTO> recipes = new ArrayList<>();
+        for (RecipeIngredientRow row : rows) {
+            RecipeDTO completed = assembler.add(row);
+            if (completed != null) {
+                recipes.add(completed);
+            }
+        }
+        RecipeDTO last = assembler.finish();
+        if (last != null) {
+            recipes.add(last);
+        }
+        return recipes;
+    }
+}
@@ -1,6 +1,17 @@
 package com.gourmich.service;
+import com.gourmich.config.DatabaseVendor;
 import com.gourmich.dto.IngredientDTO;
+import com.gourmich.dto.PantryMatchDTO;
+import com.gourmich.dto.RecipeFacetsDTO;
+import com.gourmich.dto.RecipeFilter;
+import com.gourmich.dto.RecipeSort;
+import com.gourmich.dto.RecipePageDTO;
+import com.gourmich.dto.RecipeSummaryDTO;
+import com.gourmich.dto.RecipeVersion;
 import com.gourmich.dto.UpdateRecipeDTO;
+import com.gourmich.event.RecipeCatalogReloadedEvent;
+import com.gourmich.event.RecipeChangedEvent;
+import com.gourmich.exception.PreconditionFailedException;
 import com.gourmich.exception.ResourceNotFoundException;
 import com.gourmich.exception.UnauthorizedException;
 import com.gourmich.models.Ingredient;
@@ -17,11 +28,28 @@ import com.gourmich.repo.RecipeRepository;
 import com.gourmich.repo.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import org.springframework.data.domain.Pageable;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,6 +63,33 @@ public class RecipeService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RecipeCache recipeCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DatabaseVendor databaseVendor;
+
+    @Autowired
+    private PantryIndex pantryIndex;
+
+    @Value("${gourmich.recipes.page.default-size:20}")
+    int defaultPageSize = 20;
+
+    @Value("${gourmich.recipes.page.max-size:100}")
+    int maxPageSize = 100;
+
+    @Value("${gourmich.recipes.latest.max:24}")
+    int maxLatestRecipes = 24;
+
+    @Value("${gourmich.recipes.search.max-query-length:200}")
+    int maxSearchQueryLength = 200;
+
+    @Value("${gourmich.recipes.pantry.max-ingredients:50}")
+    int maxPantryIngredients = 50;
+
     @Transactional
     public Recipe createRecipe(Recipe recipe) throws IllegalArgumentException {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -54,20 +109,229 @@ public class RecipeService {
         if (recipe.getIngredients() == null || recipe.getIngredients().isEmpty()) {
             throw new IllegalArgumentException("Ingredients are missing.");
         } else {
-            recipe.getIngredients().forEach(ingredient -> ingredient.setRecipe(recipe));
+            for (int i = 0; i < recipe.getIngredients().size(); i++) {
+                recipe.getIngredients().get(i).setRecipe(recipe);
+                recipe.getIngredients().get(i).setSortOrder(i);
+            }
+        }
+
+        Recipe saved = recipeRepository.save(recipe);
+        eventPublisher.publishEvent(new RecipeChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    // Le catalogue a changé sans passer par cette instance : index et caches en mémoire sont reconstruits
+    public void reloadCatalog() {
+        eventPublisher.publishEvent(new RecipeCatalogReloadedEvent());
+    }
+
+    // Lecture en projection : une ligne par ingrédient, sans entité gérée ni dirty checking
+    public List<RecipeDTO> getAllRecipes() {
+        return RecipeRowAssembler.assemble(recipeRepository.findAllRows());
+    }
+
+    public RecipePageDTO getRecipePage(String cursor, Integer size) {
+        return getRecipePage(RecipeFilter.NONE, cursor, size, false);
+    }
+
+    public RecipePageDTO getRecipePage(RecipeFilter filter, String cursor, Integer size, boolean withFacets) {
+        return getRecipePage(filter, RecipeSort.LATEST, cursor, size, withFacets);
+    }
+
+    public RecipePageDTO getRecipePage(RecipeFilter filter, RecipeSort sort, String cursor, Integer size,
+                                       boolean withFacets) {
+        validateFilter(filter);
+        int pageSize = pageSize(size);
+        boolean firstPage = cursor == null || cursor.isBlank();
+
+        // une ligne de plus que demandé pour savoir s'il existe une page suivante
+        List<RecipeSummaryDTO> rows = sort == RecipeSort.POPULAR
+                ? findPopularRows(filter, firstPage ? null : cursor, pageSize + 1)
+                : findLatestRows(filter, firstPage ? null : cursor, pageSize + 1);
+
+        RecipePageDTO page;
+        if (rows.size() <= pageSize) {
+            page = new RecipePageDTO(rows, null);
+        } else {
+            List<RecipeSummaryDTO> items = rows.subList(0, pageSize);
+            RecipeSummaryDTO last = items.get(pageSize - 1);
+            page = new RecipePageDTO(items, sort == RecipeSort.POPULAR
+                    ? PageCursor.encode(last.getFavoriteCount(), last.getId())
+                    : PageCursor.encode(last.getCreatedAt(), last.getId()));
+        }
+
+        // les compteurs ne changent pas d'une page à l'autre : inutile de les recalculer en suivant le curseur
+        if (withFacets && firstPage) {
+            page.setFacets(getFacets(filter));
+        }
+        return page;
+    }
+
+    private List<RecipeSummaryDTO> findLatestRows(RecipeFilter filter, String cursor, int limit) {
+        LocalDateTime createdAt = null;
+        Long id = null;
+        if (cursor != null) {
+            String[] parts = PageCursor.decode(cursor, 2);
+            try {
+                createdAt = LocalDateTime.parse(parts[0]);
+                id = Long.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        if (!filter.isEmpty()) {
+            return recipeRepository.findFilteredSummaries(filter, createdAt, id, limit);
+        } else if (cursor == null) {
+            return recipeRepository.findSummaries(PageRequest.of(0, limit));
+        }
+        return recipeRepository.findSummariesBefore(createdAt, id, PageRequest.of(0, limit));
+    }
+
+    // Keyset (favorite_count, id) : le compteur bouge entre deux pages, une recette peut alors
+    // apparaître deux fois ou être sautée ; acceptable pour un classement de popularité
+    private List<RecipeSummaryDTO> findPopularRows(RecipeFilter filter, String cursor, int limit) {
+        Long favoriteCount = null;
+        Long id = null;
+        if (cursor != null) {
+            String[] parts = PageCursor.decode(cursor, 2);
+            try {
+                favoriteCount = Long.valueOf(parts[0]);
+                id = Long.valueOf(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        return recipeRepository.findPopularSummaries(filter, favoriteCount, id, limit);
+    }
+
+    private RecipeFacetsDTO getFacets(RecipeFilter filter) {
+        Map<RecipeCategory, Long> byCategory = recipeRepository.countByCategory(filter);
+        Map<String, Long> categories = new LinkedHashMap<>();
+        for (RecipeCategory category : RecipeCategory.values()) {
+            categories.put(category.name(), byCategory.getOrDefault(category, 0L));
+        }
+        return new RecipeFacetsDTO(categories, new TreeMap<>(recipeRepository.countByDifficulty(filter)));
+    }
+
+    private static void validateFilter(RecipeFilter filter) {
+        if (filter.difficultyMin() != null && filter.difficultyMax() != null
+                && filter.difficultyMin() > filter.difficultyMax()) {
+            throw new IllegalArgumentException("difficultyMin must not be greater than difficultyMax");
+        }
+        if (filter.cookingTimeMax() != null && filter.cookingTimeMax() < 0) {
+            throw new IllegalArgumentException("cookingTimeMax must not be negative");
+        }
+    }
+
+    // Recherche classée par pertinence ; le curseur porte simplement l'offset de la page suivante
+    public RecipePageDTO searchRecipes(String q, String cursor, Integer size) {
+        if (q == null || q.isBlank()) {
+            throw new IllegalArgumentException("The search query must not be empty.");
+        }
+        String query = q.strip();
+        if (query.length() > maxSearchQueryLength) {
+            throw new IllegalArgumentException("The search query must not exceed " + maxSearchQueryLength + " characters.");
+        }
+        int pageSize = pageSize(size);
+
+        long offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                offset = Long.parseLong(PageCursor.decode(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
         }
 
-        return recipeRepository.save(recipe);
+        List<Long> ids = databaseVendor.isPostgreSql()
+                ? recipeRepository.searchIdsFullText(query, pageSize + 1, offset)
+                : recipeRepository.searchIdsLike(likePattern(query), pageSize + 1, offset);
+        if (ids.isEmpty()) {
+            return new RecipePageDTO(List.of(), null);
+        }
+
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        Map<Long, RecipeSummaryDTO> byId = recipeRepository.findSummariesByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(RecipeSummaryDTO::getId, Function.identity()));
+        List<RecipeSummaryDTO> items = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new RecipePageDTO(items, hasNext ? PageCursor.encode(offset + pageSize) : null);
     }
 
-    public List<Recipe> getAllRecipes() {
-        return recipeRepository.findAll();
+    // "Qu'est-ce que je peux cuisiner ?" : recettes couvertes par le garde-manger, les plus complètes d'abord
+    public List<PantryMatchDTO> findRecipesForPantry(List<String> ingredients, int maxMissing, Integer size) {
+        if (ingredients == null || ingredients.stream().allMatch(name -> name == null || name.isBlank())) {
+            throw new IllegalArgumentException("At least one ingredient is required.");
+        }
+        if (ingredients.size() > maxPantryIngredients) {
+            throw new IllegalArgumentException("No more than " + maxPantryIngredients + " ingredients are allowed.");
+        }
+        if (maxMissing < 0) {
+            throw new IllegalArgumentException("maxMissing must not be negative.");
+        }
+
+        List<PantryIndex.Match> matches = pantryIndex.match(ingredients, maxMissing, pageSize(size));
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, RecipeSummaryDTO> byId = recipeRepository.findSummariesByIdIn(
+                        matches.stream().map(PantryIndex.Match::recipeId).toList()).stream()
+                .collect(Collectors.toMap(RecipeSummaryDTO::getId, Function.identity()));
+        return matches.stream()
+                .filter(match -> byId.containsKey(match.recipeId()))
+                .map(match -> new PantryMatchDTO(byId.get(match.recipeId()), match.matched(), match.missing()))
+                .toList();
+    }
+
+    private static String likePattern(String query) {
+        String escaped = query.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private int pageSize(Integer size) {
+        return size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
     }
 
     public Optional<Recipe> getRecipeById(Long id) {
         return recipeRepository.findById(id);
     }
 
+    public Optional<RecipeDTO> getRecipeDtoById(Long id) {
+        return recipeCache.getDetail(id, key ->
+                RecipeRowAssembler.assemble(recipeRepository.findRowsById(key)).stream().findFirst());
+    }
+
+    // L'ETag vient de la même source que le corps : le cache s'il a la recette, sinon la seule version en base.
+    // Il n'est jamais plus récent que le corps servi ensuite, donc un 304 ne fige pas un contenu périmé.
+    public Optional<RecipeRevision> getRecipeRevision(Long id) {
+        Optional<RecipeVersion> cached = recipeCache.peekDetail(id);
+        if (cached.isPresent()) {
+            return cached.map(dto -> RecipeRevision.of(List.of(dto)));
+        }
+        return recipeRepository.findVersionById(id).map(version -> RecipeRevision.of(List.of(version)));
+    }
+
+    public RecipeRevision getLatestRevision(int n) {
+        int limit = capLatest(n);
+        return RecipeRevision.of(recipeCache.peekLatest(limit)
+                .orElseGet(() -> recipeRepository.findLatestVersions(PageRequest.of(0, limit))));
+    }
+
+    // Une ligne d'agrégats au lieu des versions de toutes les recettes : le 304 ne coûte pas un parcours complet
+    public RecipeRevision getAllRecipesRevision() {
+        return RecipeRevision.of(recipeRepository.findCatalogRevision());
+    }
+
     public RecipeDTO toDto(Recipe recipe) {
         List<IngredientDTO> ingredientDTOs = recipe.getIngredients().stream()
                 .map(ingredient -> new IngredientDTO(
@@ -87,7 +351,10 @@ public class RecipeService {
                 recipe.getCookingTime(),
                 ingredientDTOs,
                 recipe.getInstructions(),
-                recipe.getAuthor().getUsername()
+                recipe.getAuthor().getUsername(),
+                recipe.getVersion(),
+                recipe.getUpdatedAt(),
+                recipe.getFavoriteCount()
         );
     }
 
@@ -102,6 +369,9 @@ public class RecipeService {
         dto.setCookingTime(recipe.getCookingTime());
         dto.setInstructions(recipe.getInstructions());
         dto.setAuthorUsername(recipe.getAuthor().getUsername());
+        dto.setVersion(recipe.getVersion());
+        dto.setUpdatedAt(recipe.getUpdatedAt());
+        dto.setFavoriteCount(recipe.getFavoriteCount());
 
         List<IngredientDTO> ingredientDTOs = recipe.getIngredients().stream()
                 .map(ing -> {
@@ -117,6 +387,7 @@ public class RecipeService {
         return dto;
     }
 
+    @Transactional
     public void deleteRecipe(Long id){
         Recipe recipe = recipeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
@@ -127,9 +398,18 @@ public class RecipeService {
             throw new AccessDeniedException("You are not authorized to delete this recipe.");
         }
         recipeRepository.deleteById(id);
+        eventPublisher.publishEvent(new RecipeChangedEvent(id));
     }
 
+    @Transactional
     public UpdateRecipeDTO updateRecipe(Long id, RecipeDTO updatedRecipeDto) {
+        return updateRecipe(id, updatedRecipeDto, null);
+    }
+
+    // ifMatch : valeur brute de l'en-tête If-Match (null si absent). Sans lui, l'UPDATE reste protégé par
+    // @Version contre une écriture concurrente entre notre lecture et notre flush.
+    @Transactional
+    public UpdateRecipeDTO updateRecipe(Long id, RecipeDTO updatedRecipeDto, String ifMatch) {
         Recipe recipe = recipeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id : " + id));
 
@@ -140,6 +420,10 @@ public class RecipeService {
             throw new UnauthorizedException("You're not allowed to edit a recipe that isn't yours.");
         }
 
+        if (ifMatch != null && !RecipeRevision.of(recipe).matches(ifMatch)) {
+            throw new PreconditionFailedException("Recipe " + id + " has been modified since it was read");
+        }
+
         recipe.setTitle(updatedRecipeDto.getTitle());
         recipe.setDescription(updatedRecipeDto.getDescription());
         recipe.setImageUrl(updatedRecipeDto.getImageUrl());
@@ -147,23 +431,92 @@ public class RecipeService {
         recipe.setDifficulty(updatedRecipeDto.getDifficulty());
         recipe.setCookingTime(updatedRecipeDto.getCookingTime());
         recipe.setInstructions(updatedRecipeDto.getInstructions());
+        // marque la ligne modifiée même si seuls les ingrédients changent, pour faire avancer la version
+        recipe.setUpdatedAt(LocalDateTime.now());
+
+        mergeIngredients(recipe, updatedRecipeDto.getIngredients());
+
+        // flush immédiat : la version incrémentée part dans la réponse et un conflit remonte ici
+        Recipe saved = recipeRepository.saveAndFlush(recipe);
+        eventPublisher.publishEvent(new RecipeChangedEvent(saved.getId()));
+        return toDTO(saved);
+    }
+
+    // Fusionne les ingrédients reçus avec ceux en base au lieu de tout supprimer puis réinsérer :
+    // une ligne inchangée ne produit aucun SQL, une ligne modifiée un UPDATE, et seuls les ajouts
+    // et retraits donnent un INSERT ou un DELETE (orphanRemoval).
+    private void mergeIngredients(Recipe recipe, List<IngredientDTO> ingredientDtos) {
+        List<Ingredient> current = recipe.getIngredients() != null ? recipe.getIngredients() : new ArrayList<>();
+
+        // 1er passage : rapprochement par nom (insensible à la casse), dans l'ordre en cas de doublon
+        Map<String, Deque<Ingredient>> byName = new HashMap<>();
+        for (Ingredient ingredient : current) {
+            byName.computeIfAbsent(normalizeName(ingredient.getName()), k -> new ArrayDeque<>()).add(ingredient);
+        }
+        Ingredient[] matched = new Ingredient[ingredientDtos.size()];
+        Set<Ingredient> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < ingredientDtos.size(); i++) {
+            Deque<Ingredient> candidates = byName.get(normalizeName(ingredientDtos.get(i).getName()));
+            if (candidates != null && !candidates.isEmpty()) {
+                matched[i] = candidates.poll();
+                used.add(matched[i]);
+            }
+        }
 
-        recipe.getIngredients().clear();
-        for (IngredientDTO ingDto : updatedRecipeDto.getIngredients()) {
-            Ingredient ingredient = new Ingredient();
+        // 2e passage : les lignes restantes sont réutilisées par position (ingrédient renommé)
+        Iterator<Ingredient> leftovers = current.stream().filter(ingredient -> !used.contains(ingredient)).iterator();
+        List<Ingredient> merged = new ArrayList<>(ingredientDtos.size());
+        for (int i = 0; i < ingredientDtos.size(); i++) {
+            IngredientDTO ingDto = ingredientDtos.get(i);
+            Ingredient ingredient = matched[i];
+            if (ingredient == null) {
+                ingredient = leftovers.hasNext() ? leftovers.next() : new Ingredient();
+                ingredient.setRecipe(recipe);
+            }
+            // le dirty checking d'Hibernate ignore les valeurs identiques : pas d'UPDATE si rien ne change
             ingredient.setName(ingDto.getName());
             ingredient.setQuantity(ingDto.getQuantity());
             ingredient.setUnit(ingDto.getUnit());
-            ingredient.setRecipe(recipe);
-            recipe.getIngredients().add(ingredient);
+            // les lignes gardent leur id : l'ordre reçu est porté par sort_order
+            ingredient.setSortOrder(i);
+            merged.add(ingredient);
         }
 
-        Recipe saved = recipeRepository.save(recipe);
-        return toDTO(saved);
+        // on garde la même collection persistante : les instances absentes de merged sont supprimées
+        current.clear();
+        current.addAll(merged);
+        recipe.setIngredients(current);
+    }
+
+    private static String normalizeName(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public List<RecipeDTO> getLatestRecipeDtos(int n) {
+        int limit = capLatest(n);
+        return recipeCache.getLatest(limit, this::getLatestRecipes);
+    }
+
+    public List<RecipeDTO> getLatestRecipes(int n) {
+        Pageable limit = PageRequest.of(0, capLatest(n));
+        List<Long> ids = recipeRepository.findLatestIds(limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // les lignes arrivent triées par id : l'ordre de publication est repris depuis la liste d'ids
+        Map<Long, RecipeDTO> byId = RecipeRowAssembler.assemble(recipeRepository.findRowsByIdIn(ids)).stream()
+                .collect(Collectors.toMap(RecipeDTO::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
-    public List<Recipe> getLatestRecipes(int n) {
-        Pageable limit = PageRequest.of(0, n);
-        return recipeRepository.findLatestWithRelations(limit);
+    private int capLatest(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("The number of recipes must be at least 1.");
+        }
+        return Math.min(n, maxLatestRecipes);
     }
 }
@@ -2,19 +2,23 @@ package com.gourmich.service;
 
 import com.gourmich.dto.AuthResponse;
 import com.gourmich.dto.LoginRequest;
+import com.gourmich.event.UserChangedEvent;
+import com.gourmich.exception.ServerBusyException;
 import com.gourmich.exception.UserAlreadyExistsException;
 import com.gourmich.models.Users;
 import com.gourmich.repo.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -28,13 +32,22 @@ public class UserService {
     @Autowired
     AuthenticationManager authenticationManager;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public Users register(Users user) {
         if (usernameExists(user.getUsername())) {
             throw new UserAlreadyExistsException("Username already taken");
         }
-        user.setPassword(new BCryptPasswordEncoder(12).encode(user.getPassword()));
-        return repo.save(user);
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        Users saved = repo.save(user);
+        // un compte du même nom supprimé hors application peut encore être dans le PrincipalCache
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getUsername()));
+        return saved;
     }
 
     public ResponseEntity<Object> login(LoginRequest request) {
@@ -51,6 +64,12 @@ public class UserService {
             }
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        } catch (InternalAuthenticationServiceException e) {
+            // DaoAuthenticationProvider enveloppe les erreurs survenues pendant le chargement de l'utilisateur
+            if (e.getCause() instanceof ServerBusyException busy) {
+                throw busy;
+            }
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication failed");
         } catch (AuthenticationException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication failed");
         }
@@ -0,0 +1,5 @@
+-- Version optimiste et date de dernière modification : base des ETag / Last-Modified des lectures
+ALTER TABLE recipes ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE recipes ADD COLUMN updated_at TIMESTAMP;
+UPDATE recipes SET updated_at = created_at;
+ALTER TABLE recipes ALTER COLUMN updated_at SET NOT NULL;
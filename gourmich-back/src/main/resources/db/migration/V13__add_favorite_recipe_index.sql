@@ -0,0 +1,3 @@
+-- Index inverse de uc_favorite (user_id, recipe_id) : comptage des favoris d'une recette
+-- et suppression en cascade d'une recette sans parcourir toute la table
+CREATE INDEX idx_favorite_recipe_id ON favorite (recipe_id);
@@ -0,0 +1,7 @@
+-- Compteur de favoris dénormalisé : alimenté par lots par FavoriteCounter, recalé au démarrage
+ALTER TABLE recipes ADD COLUMN favorite_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE recipes SET favorite_count = (SELECT COUNT(*) FROM favorite f WHERE f.recipe_id = recipes.id);
+
+-- Listing sort=popular : keyset (favorite_count, id)
+CREATE INDEX idx_recipes_favorite_count ON recipes (favorite_count DESC, id DESC);
@@ -0,0 +1,2 @@
+-- Index pour la pagination keyset des favoris d'un utilisateur (WHERE user_id = ? ORDER BY add_at DESC, id DESC)
+CREATE INDEX idx_favorite_user_add_at ON favorite (user_id, add_at DESC, id DESC);
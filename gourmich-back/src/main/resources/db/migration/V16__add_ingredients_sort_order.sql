@@ -0,0 +1,5 @@
+-- Ordre des ingrédients tel que saisi : la fusion en place garde les ids existants, ils ne donnent plus l'ordre
+ALTER TABLE ingredients ADD COLUMN sort_order INT NOT NULL DEFAULT 0;
+
+UPDATE ingredients SET sort_order =
+    (SELECT COUNT(*) FROM ingredients j WHERE j.recipe_id = ingredients.recipe_id AND j.id < ingredients.id);
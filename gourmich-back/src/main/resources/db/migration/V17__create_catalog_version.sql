@@ -0,0 +1,7 @@
+-- Avancé par l'import en ligne de commande ; le serveur le relit pour savoir quand reconstruire ses index en mémoire
+CREATE TABLE catalog_version (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO catalog_version (id, version) VALUES (1, 0);
@@ -0,0 +1,2 @@
+-- Index pour la pagination keyset du listing des recettes (ORDER BY created_at DESC, id DESC)
+CREATE INDEX idx_recipes_created_at_id ON recipes (created_at DESC, id DESC);
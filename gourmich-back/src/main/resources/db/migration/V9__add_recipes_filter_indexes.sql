@@ -0,0 +1,5 @@
+-- Listing filtré par catégorie : égalité sur category puis parcours dans l'ordre du keyset
+CREATE INDEX idx_recipes_category_created_at ON recipes (category, created_at DESC, id DESC);
+
+-- Filtres de difficulté (intervalle) et de temps de cuisson maximum
+CREATE INDEX idx_recipes_difficulty_cooking_time ON recipes (difficulty, cooking_time);
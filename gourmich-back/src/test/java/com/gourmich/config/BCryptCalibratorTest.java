@@ -0,0 +1,34 @@
+package com.gourmich.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptCalibratorTest {
+
+    @Test
+    void strengthFor_ShouldPickHighestCostWithinBudget() {
+        // coût 8 = 16 ms -> 10 = 64 ms, 11 = 128 ms, 12 = 256 ms
+        assertEquals(11, BCryptCalibrator.strengthFor(Duration.ofMillis(250), Duration.ofMillis(16), 10));
+        assertEquals(12, BCryptCalibrator.strengthFor(Duration.ofMillis(256), Duration.ofMillis(16), 10));
+    }
+
+    @Test
+    void strengthFor_SlowHost_ShouldNotGoBelowMinimum() {
+        assertEquals(10, BCryptCalibrator.strengthFor(Duration.ofMillis(10), Duration.ofMillis(100), 10));
+    }
+
+    @Test
+    void strengthFor_SlowProbe_ShouldKeepTheConfiguredStrength() {
+        // coût 8 = 40 ms : le budget de 250 ms ne tiendrait que le coût 10, sous le coût configuré de 12
+        assertEquals(12, BCryptCalibrator.strengthFor(Duration.ofMillis(250), Duration.ofMillis(40), 12));
+    }
+
+    @Test
+    void strengthFor_FastHost_ShouldBeCapped() {
+        assertEquals(BCryptCalibrator.MAX_STRENGTH,
+                BCryptCalibrator.strengthFor(Duration.ofSeconds(10), Duration.ofNanos(1), 12));
+    }
+}
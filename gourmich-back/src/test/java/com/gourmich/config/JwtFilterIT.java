@@ -4,6 +4,7 @@ import com.gourmich.models.UserPrincipal;
 import com.gourmich.models.Users;
 import com.gourmich.service.CustomUserDetailsService;
 import com.gourmich.service.JWTService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -95,7 +96,7 @@ class JwtFilterIT {
         when(request.getServletPath()).thenReturn("/api/favorites");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(customUserDetailsService.loadUserEntityByUsername("ghostuser"))
+        when(customUserDetailsService.loadPrincipalByUsername("ghostuser"))
                 .thenThrow(new UsernameNotFoundException("User not found"));
 
         jwtFilter.doFilterInternal(request, response, filterChain);
@@ -110,7 +111,7 @@ class JwtFilterIT {
         when(request.getServletPath()).thenReturn("/api/favorites");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(customUserDetailsService.loadUserEntityByUsername(user.getUsername())).thenReturn(user);
+        when(customUserDetailsService.loadPrincipalByUsername(user.getUsername())).thenReturn(new UserPrincipal(user));
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
@@ -125,12 +126,12 @@ class JwtFilterIT {
         JWTService spyJwt = spy(jwtService);
         jwtFilter.jwtService = spyJwt;
         String token = jwtService.generateToken(user.getUsername());
-        doReturn(false).when(spyJwt).validateToken(eq(token), any(UserPrincipal.class));
+        doReturn(false).when(spyJwt).validateToken(any(Claims.class), any(UserPrincipal.class));
 
         when(request.getServletPath()).thenReturn("/api/favorites");
         when(request.getMethod()).thenReturn("GET");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(customUserDetailsService.loadUserEntityByUsername(user.getUsername())).thenReturn(user);
+        when(customUserDetailsService.loadPrincipalByUsername(user.getUsername())).thenReturn(new UserPrincipal(user));
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
@@ -145,7 +146,7 @@ class JwtFilterIT {
         when(request.getServletPath()).thenReturn("/api/recipes/by-id/1");
         when(request.getMethod()).thenReturn("DELETE");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(customUserDetailsService.loadUserEntityByUsername(user.getUsername())).thenReturn(user);
+        when(customUserDetailsService.loadPrincipalByUsername(user.getUsername())).thenReturn(new UserPrincipal(user));
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
@@ -83,6 +83,15 @@ class SpringSecurityConfigIT {
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
     }
 
+    @Test
+    void exportEndpoint_WithoutToken_ShouldReturnUnauthorized() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                baseUrl + "/api/recipes/export", String.class
+        );
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
     @Test
     void publicEndpoint_WithoutToken_ShouldReturnOk() {
         ResponseEntity<String> response = restTemplate.getForEntity(
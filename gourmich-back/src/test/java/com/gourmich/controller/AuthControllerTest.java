@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gourmich.dto.AuthResponse;
 import com.gourmich.dto.LoginRequest;
 import com.gourmich.dto.RegisterUserDTO;
+import com.gourmich.exception.ServerBusyException;
 import com.gourmich.exception.UserAlreadyExistsException;
 import com.gourmich.models.Users;
 import com.gourmich.service.JWTService;
@@ -164,6 +165,39 @@ class AuthControllerTest {
                 .andExpect(content().string("Invalid username or password"));
     }
 
+    @Test
+    void testLogin_ServerBusy_ShouldReturn503WithRetryAfter() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("testuser");
+        loginRequest.setPassword("password");
+
+        when(userService.login(any(LoginRequest.class)))
+                .thenThrow(new ServerBusyException("Too many authentication requests, please retry later"));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void testRegister_ServerBusy_ShouldReturn503() throws Exception {
+        RegisterUserDTO dto = new RegisterUserDTO();
+        dto.setUsername("testuser");
+        dto.setEmail("test@test.com");
+        dto.setPassword("password");
+
+        when(userService.register(any(Users.class)))
+                .thenThrow(new ServerBusyException("Too many authentication requests, please retry later"));
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
     // ------------------- CHECK EMAIL -------------------
     @Test
     void testCheckEmailExists_ShouldReturnTrue() throws Exception {
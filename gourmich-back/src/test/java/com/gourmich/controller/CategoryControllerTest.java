@@ -1,6 +1,9 @@
 package com.gourmich.controller;
 
+import com.gourmich.dto.CategoryOverviewDTO;
+import com.gourmich.dto.RecipeSummaryDTO;
 import com.gourmich.models.RecipeCategory;
+import com.gourmich.service.CategoryOverviewService;
 import com.gourmich.service.JWTService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -22,6 +28,9 @@ class CategoryControllerTest {
     @MockitoBean
     private JWTService jwtService;
 
+    @MockitoBean
+    private CategoryOverviewService categoryOverviewService;
+
     @Test
     void getAllCategories() throws Exception {
         mockMvc.perform(get("/api/categories"))
@@ -29,4 +38,27 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$.length()").value(RecipeCategory.values().length))
                 .andExpect(jsonPath("$[0]").value(RecipeCategory.values()[0].name()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getOverview() throws Exception {
+        RecipeSummaryDTO summary = new RecipeSummaryDTO();
+        summary.setId(4L);
+        summary.setTitle("Tiramisu");
+        when(categoryOverviewService.getOverview(3)).thenReturn(List.of(
+                new CategoryOverviewDTO(RecipeCategory.DESSERT, 7, List.of(summary))));
+
+        mockMvc.perform(get("/api/categories/overview").param("perCategory", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category").value("Dessert"))
+                .andExpect(jsonPath("$[0].recipeCount").value(7))
+                .andExpect(jsonPath("$[0].latest[0].title").value("Tiramisu"));
+    }
+
+    @Test
+    void getOverview_InvalidDepth_ShouldReturnBadRequest() throws Exception {
+        when(categoryOverviewService.getOverview(50)).thenThrow(new IllegalArgumentException("perCategory must be between 1 and 12"));
+
+        mockMvc.perform(get("/api/categories/overview").param("perCategory", "50"))
+                .andExpect(status().isBadRequest());
+    }
+}
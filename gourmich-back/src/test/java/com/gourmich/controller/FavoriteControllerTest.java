@@ -2,6 +2,8 @@ package com.gourmich.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gourmich.dto.FavoriteDTO;
+import com.gourmich.dto.FavoritePageDTO;
+import com.gourmich.exception.ResourceNotFoundException;
 import com.gourmich.models.RecipeCategory;
 import com.gourmich.service.FavoriteService;
 import com.gourmich.service.JWTService;
@@ -14,8 +16,15 @@ import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,7 +57,8 @@ class FavoriteControllerTest {
                 "http://image.jpg",
                 "author",
                 30L,
-                RecipeCategory.MAIN_COURSE
+                RecipeCategory.MAIN_COURSE,
+                null
         );
 
         when(favoriteService.getFavoritesForCurrentUser())
@@ -84,7 +94,8 @@ class FavoriteControllerTest {
                 "http://image.jpg",
                 "author",
                 30L,
-                RecipeCategory.MAIN_COURSE
+                RecipeCategory.MAIN_COURSE,
+                null
         );
 
         when(favoriteService.toggleFavoriteForCurrentUser(10L)).thenReturn(dto);
@@ -187,8 +198,106 @@ class FavoriteControllerTest {
                 .andExpect(content().string("Utilisateur non authentifié"));
     }
 
+    @Test
+    @WithMockUser(username = "testuser")
+    void testFavoriteStatus() throws Exception {
+        Map<Long, Boolean> status = new LinkedHashMap<>();
+        status.put(10L, true);
+        status.put(11L, false);
+        when(favoriteService.getFavoriteStatusForCurrentUser(List.of(10L, 11L))).thenReturn(status);
+
+        mockMvc.perform(post("/api/favorites/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[10, 11]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['10']").value(true))
+                .andExpect(jsonPath("$['11']").value(false));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void testFavoriteStatus_tooManyIds() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, FavoriteController.MAX_STATUS_IDS + 1).boxed().toList();
+
+        mockMvc.perform(post("/api/favorites/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest());
+
+        verify(favoriteService, never()).getFavoriteStatusForCurrentUser(any());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void testAddFavorite_created() throws Exception {
+        when(favoriteService.addFavoriteForCurrentUser(10L)).thenReturn(true);
+
+        mockMvc.perform(put("/api/favorites/10"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void testAddFavorite_alreadyFavorite() throws Exception {
+        when(favoriteService.addFavoriteForCurrentUser(10L)).thenReturn(false);
+
+        mockMvc.perform(put("/api/favorites/10"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void testAddFavorite_recipeNotFound() throws Exception {
+        when(favoriteService.addFavoriteForCurrentUser(999L))
+                .thenThrow(new ResourceNotFoundException("Recette non trouvée"));
 
+        mockMvc.perform(put("/api/favorites/999"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Recette non trouvée"));
+    }
 
+    @Test
+    @WithMockUser(username = "testuser")
+    void testRemoveFavorite() throws Exception {
+        when(favoriteService.removeFavoriteForCurrentUser(10L)).thenReturn(false);
 
+        mockMvc.perform(delete("/api/favorites/10"))
+                .andExpect(status().isNoContent());
+    }
 
-}
\ No newline at end of file
+    @Test
+    @WithAnonymousUser
+    void testRemoveFavorite_unauthorized() throws Exception {
+        when(favoriteService.removeFavoriteForCurrentUser(10L))
+                .thenThrow(new IllegalArgumentException("Utilisateur non authentifié"));
+
+        mockMvc.perform(delete("/api/favorites/10"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void testFavoritePage() throws Exception {
+        FavoriteDTO dto = new FavoriteDTO(1L, 10L, "Tiramisu", null, null, "author", 30L,
+                RecipeCategory.DESSERT, LocalDateTime.of(2025, 3, 1, 12, 0));
+        when(favoriteService.getFavoritePageForCurrentUser(RecipeCategory.DESSERT, null, 1))
+                .thenReturn(new FavoritePageDTO(List.of(dto), "abc"));
+
+        mockMvc.perform(get("/api/favorites/page")
+                        .param("category", "dessert")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].recipeId").value(10L))
+                .andExpect(jsonPath("$.items[0].addAt").exists())
+                .andExpect(jsonPath("$.next").value("abc"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void testFavoritePage_unknownCategory() throws Exception {
+        mockMvc.perform(get("/api/favorites/page").param("category", "brunch"))
+                .andExpect(status().isBadRequest());
+
+        verify(favoriteService, never()).getFavoritePageForCurrentUser(any(), any(), any());
+    }
+}
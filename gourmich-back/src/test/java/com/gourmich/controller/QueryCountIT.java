@@ -0,0 +1,343 @@
+package com.gourmich.controller;
+
+import com.gourmich.models.Favorite;
+import com.gourmich.models.Ingredient;
+import com.gourmich.models.Recipe;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.models.Users;
+import com.gourmich.repo.FavoriteRepository;
+import com.gourmich.repo.RecipeRepository;
+import com.gourmich.repo.UserRepository;
+import com.gourmich.service.JWTService;
+import com.gourmich.service.PrincipalCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Vérifie que le nombre de requêtes SQL par endpoint reste constant quel que soit le nombre de recettes
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driverClassName=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.properties.hibernate.generate_statistics=true"
+        }
+)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class QueryCountIT {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    private Statistics statistics;
+    private Users chef;
+    private String bearerToken;
+
+    @BeforeEach
+    void setUp() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        chef = new Users("chef@example.com", "chef", "secret");
+        userRepository.save(chef);
+        bearerToken = "Bearer " + jwtService.generateToken("chef");
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAllRecipes_ShouldUseConstantQueryCount() {
+        seedRecipes(3);
+        long few = countStatements("/api/recipes", false);
+
+        seedRecipes(20);
+        long many = countStatements("/api/recipes", false);
+
+        // 1 pour les versions (ETag) + 1 pour les recettes et leur graphe
+        assertEquals(2, few);
+        assertEquals(few, many);
+    }
+
+    @Test
+    void getLatestRecipes_ShouldUseConstantQueryCount() {
+        seedRecipes(3);
+        long few = countStatements("/api/recipes/latest?n=3", false);
+
+        seedRecipes(20);
+        long many = countStatements("/api/recipes/latest?n=10", false);
+
+        assertTrue(few <= 3, "latest used " + few + " statements");
+        assertEquals(few, many);
+    }
+
+    @Test
+    void getRecipeById_ShouldLoadRecipeGraphInOneQuery() {
+        Recipe recipe = seedRecipes(1).get(0);
+
+        long statements = countStatements("/api/recipes/by-id/" + recipe.getId(), true);
+
+        // 1 pour l'utilisateur authentifié + 1 pour la version (ETag) + 1 pour la recette, ses ingrédients et son auteur
+        assertTrue(statements <= 3, "by-id used " + statements + " statements");
+    }
+
+    @Test
+    void conditionalRead_ShouldOnlyQueryVersions() {
+        seedRecipes(5);
+        String eTag = restTemplate.getForEntity("/api/recipes", String.class).getHeaders().getETag();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.exchange("/api/recipes", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionFetchCount());
+    }
+
+    @Test
+    void exportRecipes_ShouldStreamInOneStatementWithoutManagedEntities() {
+        seedRecipes(30);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.exchange("/api/recipes/export", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        // 1 pour l'utilisateur authentifié + 1 curseur pour tout le catalogue, sans entité chargée
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(30, response.getBody().split("\n").length);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getFavorites_ShouldUseConstantQueryCount() {
+        favoriteAll(seedRecipes(3));
+        long few = countStatements("/api/favorites", true);
+
+        favoriteAll(seedRecipes(20));
+        long many = countStatements("/api/favorites", true);
+
+        assertTrue(few <= 3, "favorites used " + few + " statements");
+        assertEquals(few, many);
+    }
+
+    @Test
+    void authenticatedRequest_ShouldReuseCachedPrincipal() {
+        favoriteAll(seedRecipes(3));
+        long cold = countStatements("/api/favorites", true);
+        long warm = countStatements("/api/favorites", true, false);
+
+        // le SELECT users du JwtFilter disparaît une fois le principal en cache
+        assertEquals(cold - 1, warm);
+    }
+
+    @Test
+    void isFavorite_ShouldBeASingleScalarLookup() {
+        List<Recipe> recipes = seedRecipes(2);
+        favoriteAll(recipes.subList(0, 1));
+        countStatements("/api/favorites/is-favorite/" + recipes.get(0).getId(), true);
+
+        // principal en cache : ni SELECT users ni entité Favorite chargée, une seule sonde sur uc_favorite
+        assertEquals(1, countStatements("/api/favorites/is-favorite/" + recipes.get(0).getId(), true, false));
+        assertEquals(1, countStatements("/api/favorites/is-favorite/" + recipes.get(1).getId(), true, false));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void favoriteStatus_ShouldUseOneStatementForAWholePage() {
+        List<Recipe> recipes = seedRecipes(20);
+        favoriteAll(recipes.subList(0, 5));
+        List<Long> ids = recipes.stream().map(Recipe::getId).toList();
+        postFavoriteStatus(ids);
+
+        statistics.clear();
+        Map<String, Boolean> status = postFavoriteStatus(ids);
+
+        assertEquals(20, status.size());
+        assertEquals(5, status.values().stream().filter(Boolean::booleanValue).count());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void favoritePage_ShouldBeASingleProjection() {
+        favoriteAll(seedRecipes(30));
+        countStatements("/api/favorites/page?size=10", true);
+
+        // recette et auteur joints dans la même requête, sans entité chargée
+        assertEquals(1, countStatements("/api/favorites/page?size=10", true, false));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void createRecipe_ShouldUseConstantRoundTripsWhateverTheIngredientCount() {
+        // appels à blanc : sur une séquence neuve, l'optimiseur pooled ne sert d'abord que la valeur initiale,
+        // le bloc de 50 ids n'est réservé qu'au nextval suivant
+        createRecipe("Warm-up", 1);
+        createRecipe("Second warm-up", 1);
+
+        long few = createRecipe("Three ingredients", 3);
+        long many = createRecipe("Thirty ingredients", 30);
+
+        // les 30 INSERT d'ingrédients partent en un seul batch JDBC
+        assertEquals(few, many);
+        assertEquals(31, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void updateRecipe_ShouldOnlyWriteChangedIngredients() {
+        Recipe recipe = seedRecipes(1).get(0);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Map<String, Object> payload = Map.of(
+                "title", recipe.getTitle(),
+                "category", "MAIN_COURSE",
+                "difficulty", 2,
+                "cookingTime", 30,
+                "instructions", "Cook",
+                "ingredients", List.of(
+                        Map.of("name", "Salt", "quantity", 1.0, "unit", "g"),
+                        Map.of("name", "Pepper", "quantity", 4.0, "unit", "g"),
+                        Map.of("name", "Butter", "quantity", 10.0, "unit", "g"),
+                        Map.of("name", "Flour", "quantity", 200.0, "unit", "g")));
+
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.exchange("/api/recipes/by-id/" + recipe.getId(), HttpMethod.PUT,
+                new HttpEntity<>(payload, headers), String.class);
+
+        // Salt intact, Pepper modifié, Oil renommé en Butter, Flour ajouté : la recette + 2 ingrédients en UPDATE
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, statistics.getEntityUpdateCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+    }
+
+    // ------------------- Tools -------------------
+
+    private long countStatements(String url, boolean authenticated) {
+        return countStatements(url, authenticated, true);
+    }
+
+    private long countStatements(String url, boolean authenticated, boolean coldPrincipal) {
+        HttpHeaders headers = new HttpHeaders();
+        if (authenticated) {
+            headers.set("Authorization", bearerToken);
+        }
+        if (coldPrincipal) {
+            principalCache.invalidateAll();
+        }
+
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Boolean> postFavoriteStatus(List<Long> recipeIds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<Map> response = restTemplate.exchange("/api/favorites/status", HttpMethod.POST,
+                new HttpEntity<>(recipeIds, headers), Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private long createRecipe(String title, int ingredientCount) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        List<Map<String, Object>> ingredients = new ArrayList<>();
+        for (int i = 0; i < ingredientCount; i++) {
+            ingredients.add(Map.of("name", "Ingredient " + i, "quantity", 1.0, "unit", "g"));
+        }
+        Map<String, Object> payload = Map.of(
+                "title", title,
+                "category", "MAIN_COURSE",
+                "difficulty", 2,
+                "cookingTime", 30,
+                "instructions", "Cook",
+                "ingredients", ingredients);
+
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.exchange("/api/recipes", HttpMethod.POST,
+                new HttpEntity<>(payload, headers), String.class);
+        assertTrue(response.getStatusCode().is2xxSuccessful(), response.toString());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Recipe> seedRecipes(int count) {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Recipe " + System.nanoTime());
+            recipe.setCategory(RecipeCategory.MAIN_COURSE);
+            recipe.setDifficulty(2);
+            recipe.setCookingTime(30L);
+            recipe.setInstructions("Cook");
+            recipe.setAuthor(chef);
+            recipe.setIngredients(new ArrayList<>(List.of(
+                    new Ingredient("Salt", 1.0, "g", recipe),
+                    new Ingredient("Pepper", 2.0, "g", recipe),
+                    new Ingredient("Oil", 3.0, "ml", recipe)
+            )));
+            recipes.add(recipeRepository.save(recipe));
+        }
+        return recipes;
+    }
+
+    private void favoriteAll(List<Recipe> recipes) {
+        for (Recipe recipe : recipes) {
+            Favorite favorite = new Favorite();
+            favorite.setUser(chef);
+            favorite.setRecipe(recipe);
+            favoriteRepository.save(favorite);
+        }
+    }
+}
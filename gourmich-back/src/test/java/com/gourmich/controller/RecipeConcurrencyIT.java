@@ -0,0 +1,178 @@
+package com.gourmich.controller;
+
+import com.gourmich.models.Ingredient;
+import com.gourmich.models.Recipe;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.models.Users;
+import com.gourmich.repo.FavoriteRepository;
+import com.gourmich.repo.RecipeRepository;
+import com.gourmich.repo.UserRepository;
+import com.gourmich.service.JWTService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Modifications simultanées d'une même recette : une seule doit passer, les autres sont refusées
+// (412 si If-Match est déjà périmé à la lecture, 409 si le conflit n'apparaît qu'à l'UPDATE)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driverClassName=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop"
+        }
+)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RecipeConcurrencyIT {
+
+    private static final int EDITORS = 8;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    private Users chef;
+    private String bearerToken;
+
+    @BeforeEach
+    void setUp() {
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        chef = new Users("chef@example.com", "chef", "secret");
+        userRepository.save(chef);
+        bearerToken = "Bearer " + jwtService.generateToken("chef");
+    }
+
+    @Test
+    void parallelUpdates_WithSameIfMatch_ShouldAcceptExactlyOne() throws Exception {
+        Recipe recipe = seedRecipe();
+        String eTag = read(recipe.getId()).getHeaders().getETag();
+        assertNotNull(eTag);
+
+        List<HttpStatusCode> statuses = runInParallel(editor -> update(recipe.getId(), eTag, "Title " + editor));
+
+        assertEquals(1, statuses.stream().filter(status -> status == HttpStatus.OK).count(), statuses.toString());
+        assertTrue(statuses.stream().allMatch(status -> status == HttpStatus.OK
+                || status == HttpStatus.PRECONDITION_FAILED
+                || status == HttpStatus.CONFLICT), statuses.toString());
+        assertEquals(1L, recipeRepository.findById(recipe.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void parallelUpdates_WithoutIfMatch_ShouldNeverLoseAVersion() throws Exception {
+        Recipe recipe = seedRecipe();
+
+        List<HttpStatusCode> statuses = runInParallel(editor -> update(recipe.getId(), null, "Title " + editor));
+
+        // chaque écriture acceptée fait avancer la version d'exactement un cran ; les autres sont en 409
+        long accepted = statuses.stream().filter(status -> status == HttpStatus.OK).count();
+        assertTrue(accepted >= 1, statuses.toString());
+        assertTrue(statuses.stream().allMatch(status -> status == HttpStatus.OK || status == HttpStatus.CONFLICT),
+                statuses.toString());
+        assertEquals(accepted, recipeRepository.findById(recipe.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void sequentialUpdates_ShouldChainWithReturnedETag() {
+        Recipe recipe = seedRecipe();
+        String eTag = read(recipe.getId()).getHeaders().getETag();
+        assertNotNull(eTag);
+
+        ResponseEntity<String> first = update(recipe.getId(), eTag, "First edit");
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, update(recipe.getId(), eTag, "Lost edit").getStatusCode());
+        assertEquals(HttpStatus.OK, update(recipe.getId(), first.getHeaders().getETag(), "Second edit").getStatusCode());
+        assertEquals("Second edit", recipeRepository.findById(recipe.getId()).orElseThrow().getTitle());
+    }
+
+    // ------------------- Tools -------------------
+
+    private List<HttpStatusCode> runInParallel(IntFunction<ResponseEntity<String>> edit)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(EDITORS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<HttpStatusCode>> futures = new ArrayList<>();
+            for (int i = 0; i < EDITORS; i++) {
+                int editor = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return edit.apply(editor).getStatusCode();
+                }));
+            }
+            start.countDown();
+
+            List<HttpStatusCode> statuses = new ArrayList<>();
+            for (Future<HttpStatusCode> future : futures) {
+                statuses.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ResponseEntity<String> read(Long id) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        return restTemplate.exchange("/api/recipes/by-id/" + id, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<String> update(Long id, String ifMatch, String title) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (ifMatch != null) {
+            headers.setIfMatch(ifMatch);
+        }
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("title", title);
+        payload.put("category", "MAIN_COURSE");
+        payload.put("difficulty", 2);
+        payload.put("cookingTime", 30);
+        payload.put("instructions", "Cook");
+        payload.put("ingredients", List.of(Map.of("name", "Salt", "quantity", 1.0, "unit", "g")));
+
+        return restTemplate.exchange("/api/recipes/by-id/" + id, HttpMethod.PUT,
+                new HttpEntity<>(payload, headers), String.class);
+    }
+
+    private Recipe seedRecipe() {
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Ratatouille");
+        recipe.setCategory(RecipeCategory.MAIN_COURSE);
+        recipe.setDifficulty(2);
+        recipe.setCookingTime(30L);
+        recipe.setInstructions("Cook");
+        recipe.setAuthor(chef);
+        recipe.setIngredients(new ArrayList<>(List.of(new Ingredient("Salt", 1.0, "g", recipe))));
+        return recipeRepository.save(recipe);
+    }
+}
@@ -4,26 +4,48 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gourmich.dto.IngredientDTO;
 import com.gourmich.dto.RecipeDTO;
+import com.gourmich.dto.PantryMatchDTO;
+import com.gourmich.dto.RecipeFacetsDTO;
+import com.gourmich.dto.RecipeFilter;
+import com.gourmich.dto.RecipeSort;
+import com.gourmich.dto.RecipeImportRejectDTO;
+import com.gourmich.dto.RecipeImportReportDTO;
+import com.gourmich.dto.RecipePageDTO;
+import com.gourmich.dto.RecipeSummaryDTO;
 import com.gourmich.dto.UpdateRecipeDTO;
+import com.gourmich.exception.PreconditionFailedException;
 import com.gourmich.exception.ResourceNotFoundException;
+import com.gourmich.exception.ServerBusyException;
 import com.gourmich.models.Recipe;
 import com.gourmich.models.RecipeCategory;
 import com.gourmich.service.JWTService;
+import com.gourmich.service.RecipeExportLimiter;
+import com.gourmich.service.RecipeExportService;
+import com.gourmich.service.RecipeImportService;
+import com.gourmich.service.RecipeRevision;
 import com.gourmich.service.RecipeService;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @WebMvcTest(RecipeController.class)
@@ -36,12 +58,23 @@ class RecipeControllerTest {
     @MockitoBean
     private RecipeService recipeService;
 
+    @MockitoBean
+    private RecipeImportService recipeImportService;
+
+    @MockitoBean
+    private RecipeExportService recipeExportService;
+
+    @MockitoBean
+    private RecipeExportLimiter recipeExportLimiter;
+
     @MockitoBean
     private JWTService jwtService;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    private static final RecipeRevision REVISION = new RecipeRevision("\"3f2a\"", 1_736_510_400_000L);
+
     // ------------------- CREATE -------------------
     @Test
     void createRecipe() throws Exception {
@@ -92,17 +125,77 @@ class RecipeControllerTest {
                 .andExpect(content().string("Erreur interne lors de la création de la recette"));
     }
 
-    // ------------------- GET -------------------
+    // ------------------- BULK IMPORT -------------------
     @Test
-    void testGetAllRecipes() throws Exception {
-        Recipe recipe1 = new Recipe();
-        recipe1.setId(1L);
-        recipe1.setTitle("Recette 1");
+    @WithMockUser(username = "partner")
+    void importRecipes_ShouldStreamBodyAndReturnReport() throws Exception {
+        RecipeImportReportDTO report = new RecipeImportReportDTO(2, 1, 1,
+                List.of(new RecipeImportRejectDTO(2, "Pizza", "Unknown category: Brunch")));
+        when(recipeImportService.importRecipes(any(InputStream.class))).thenReturn(report);
+
+        mockMvc.perform(post("/api/recipes/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\": \"Ratatouille\"}\n{\"title\": \"Pizza\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejects[0].record").value(2))
+                .andExpect(jsonPath("$.rejects[0].reason").value("Unknown category: Brunch"));
+    }
+
+    @Test
+    @WithMockUser(username = "partner")
+    void importRecipes_NotRecipes_ShouldReturnBadRequest() throws Exception {
+        when(recipeImportService.importRecipes(any(InputStream.class)))
+                .thenThrow(new IllegalArgumentException("Expected a JSON array of recipes or one recipe object per line"));
+
+        mockMvc.perform(post("/api/recipes/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("42"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ------------------- EXPORT -------------------
+    @Test
+    void exportRecipes_ShouldStreamNdjson() throws Exception {
+        RecipeExportLimiter limiter = new RecipeExportLimiter(1);
+        when(recipeExportLimiter.acquire()).thenAnswer(i -> limiter.acquire());
+        when(recipeExportService.exportRecipes(any(OutputStream.class))).thenAnswer(i -> {
+            i.<OutputStream>getArgument(0).write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2;
+        });
+
+        MvcResult started = mockMvc.perform(get("/api/recipes/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+
+        // délai propre à l'export (30 min), place rendue une seule fois par le flux terminé
+        assertEquals(1_800_000L, started.getRequest().getAsyncContext().getTimeout());
+        verify(recipeExportLimiter).acquire();
+        limiter.acquire();
+        assertThrows(ServerBusyException.class, limiter::acquire);
+    }
+
+    @Test
+    void exportRecipes_TooManyExports_ShouldReturnServiceUnavailable() throws Exception {
+        doThrow(new ServerBusyException("Too many exports in progress, please retry later"))
+                .when(recipeExportLimiter).acquire();
+
+        mockMvc.perform(get("/api/recipes/export"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
 
-        Recipe recipe2 = new Recipe();
-        recipe2.setId(2L);
-        recipe2.setTitle("Recette 2");
+        verifyNoInteractions(recipeExportService);
+    }
 
+    // ------------------- GET -------------------
+    @Test
+    void testGetAllRecipes() throws Exception {
         RecipeDTO dto1 = new RecipeDTO();
         dto1.setId(1L);
         dto1.setTitle("Recette 1");
@@ -111,9 +204,8 @@ class RecipeControllerTest {
         dto2.setId(2L);
         dto2.setTitle("Recette 2");
 
-        when(recipeService.getAllRecipes()).thenReturn(List.of(recipe1, recipe2));
-        when(recipeService.toDto(recipe1)).thenReturn(dto1);
-        when(recipeService.toDto(recipe2)).thenReturn(dto2);
+        when(recipeService.getAllRecipesRevision()).thenReturn(REVISION);
+        when(recipeService.getAllRecipes()).thenReturn(List.of(dto1, dto2));
 
         mockMvc.perform(get("/api/recipes")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -122,19 +214,145 @@ class RecipeControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].title").value("Recette 1"))
                 .andExpect(jsonPath("$[1].id").value(2L))
-                .andExpect(jsonPath("$[1].title").value("Recette 2"));
+                .andExpect(jsonPath("$[1].title").value("Recette 2"))
+                .andExpect(header().string("ETag", "\"3f2a\""))
+                .andExpect(header().string("Cache-Control", "no-cache"));
     }
 
     @Test
-    void testGetLatestRecipes() throws Exception {
-        Recipe recipe1 = new Recipe();
-        recipe1.setId(1L);
-        recipe1.setTitle("Recette la plus récente 1");
+    void testGetAllRecipes_MatchingETag_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        when(recipeService.getAllRecipesRevision()).thenReturn(REVISION);
+
+        mockMvc.perform(get("/api/recipes").header("If-None-Match", "\"3f2a\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(recipeService, never()).getAllRecipes();
+    }
+
+    @Test
+    void testGetRecipePage() throws Exception {
+        RecipeSummaryDTO summary = new RecipeSummaryDTO();
+        summary.setId(1L);
+        summary.setTitle("Recette 1");
+
+        when(recipeService.getRecipePage(RecipeFilter.NONE, RecipeSort.LATEST, "abc", 1, false)).thenReturn(new RecipePageDTO(List.of(summary), "next"));
+
+        mockMvc.perform(get("/api/recipes/page")
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Recette 1"))
+                .andExpect(jsonPath("$.items[0].ingredients").doesNotExist())
+                .andExpect(jsonPath("$.next").value("next"));
+    }
+
+    @Test
+    void testGetRecipePage_InvalidCursor_ShouldReturnBadRequest() throws Exception {
+        when(recipeService.getRecipePage(RecipeFilter.NONE, RecipeSort.LATEST, "bad", null, false)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/recipes/page").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetRecipePage_WithFiltersAndFacets() throws Exception {
+        RecipeFilter filter = new RecipeFilter(RecipeCategory.DESSERT, 1, 2, 30L);
+        RecipeFacetsDTO facets = new RecipeFacetsDTO(Map.of("DESSERT", 3L), Map.of(1, 2L, 2, 1L));
+        when(recipeService.getRecipePage(filter, RecipeSort.LATEST, null, null, true))
+                .thenReturn(new RecipePageDTO(List.of(), null, facets));
+
+        mockMvc.perform(get("/api/recipes/page")
+                        .param("category", "Dessert")
+                        .param("difficultyMin", "1")
+                        .param("difficultyMax", "2")
+                        .param("cookingTimeMax", "30")
+                        .param("facets", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.facets.categories.DESSERT").value(3))
+                .andExpect(jsonPath("$.facets.difficulties.1").value(2));
+    }
+
+    @Test
+    void testGetRecipePage_WithoutFacets_ShouldOmitField() throws Exception {
+        when(recipeService.getRecipePage(RecipeFilter.NONE, RecipeSort.LATEST, null, null, false))
+                .thenReturn(new RecipePageDTO(List.of(), null));
+
+        mockMvc.perform(get("/api/recipes/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.facets").doesNotExist());
+    }
+
+    @Test
+    void testGetRecipePage_SortedByPopularity() throws Exception {
+        RecipeSummaryDTO summary = new RecipeSummaryDTO();
+        summary.setId(1L);
+        summary.setFavoriteCount(42L);
+        when(recipeService.getRecipePage(RecipeFilter.NONE, RecipeSort.POPULAR, null, null, false))
+                .thenReturn(new RecipePageDTO(List.of(summary), null));
+
+        mockMvc.perform(get("/api/recipes/page").param("sort", "popular"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].favoriteCount").value(42));
+    }
+
+    @Test
+    void testGetRecipePage_UnknownSort_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/recipes/page").param("sort", "random"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetRecipePage_UnknownCategory_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/recipes/page").param("category", "BRUNCH"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchRecipes() throws Exception {
+        RecipeSummaryDTO summary = new RecipeSummaryDTO();
+        summary.setId(4L);
+        summary.setTitle("Tarte aux pommes");
+
+        when(recipeService.searchRecipes("pommes", null, null)).thenReturn(new RecipePageDTO(List.of(summary), null));
+
+        mockMvc.perform(get("/api/recipes/search").param("q", "pommes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(4L))
+                .andExpect(jsonPath("$.items[0].title").value("Tarte aux pommes"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void testSearchRecipes_MissingQuery_ShouldReturnBadRequest() throws Exception {
+        when(recipeService.searchRecipes(null, null, null))
+                .thenThrow(new IllegalArgumentException("The search query must not be empty."));
+
+        mockMvc.perform(get("/api/recipes/search"))
+                .andExpect(status().isBadRequest());
+    }
 
-        Recipe recipe2 = new Recipe();
-        recipe2.setId(2L);
-        recipe2.setTitle("Recette la plus récente 2");
+    @Test
+    void testFindRecipesForPantry() throws Exception {
+        RecipeSummaryDTO summary = new RecipeSummaryDTO();
+        summary.setId(3L);
+        summary.setTitle("Crêpes");
+
+        when(recipeService.findRecipesForPantry(List.of("oeufs", "lait", "farine"), 1, null))
+                .thenReturn(List.of(new PantryMatchDTO(summary, 3, 0)));
+
+        mockMvc.perform(get("/api/recipes/pantry")
+                        .param("ingredients", "oeufs", "lait", "farine")
+                        .param("maxMissing", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].recipe.id").value(3L))
+                .andExpect(jsonPath("$[0].matchedIngredients").value(3))
+                .andExpect(jsonPath("$[0].missingIngredients").value(0));
+    }
 
+    @Test
+    void testGetLatestRecipes() throws Exception {
         RecipeDTO dto1 = new RecipeDTO();
         dto1.setId(1L);
         dto1.setTitle("Recette la plus récente 1");
@@ -143,9 +361,8 @@ class RecipeControllerTest {
         dto2.setId(2L);
         dto2.setTitle("Recette la plus récente 2");
 
-        when(recipeService.getLatestRecipes(3)).thenReturn(List.of(recipe1, recipe2));
-        when(recipeService.toDto(recipe1)).thenReturn(dto1);
-        when(recipeService.toDto(recipe2)).thenReturn(dto2);
+        when(recipeService.getLatestRevision(3)).thenReturn(REVISION);
+        when(recipeService.getLatestRecipeDtos(3)).thenReturn(List.of(dto1, dto2));
 
         mockMvc.perform(get("/api/recipes/latest")
                         .param("n", "3")
@@ -155,32 +372,66 @@ class RecipeControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].title").value("Recette la plus récente 1"))
                 .andExpect(jsonPath("$[1].id").value(2L))
-                .andExpect(jsonPath("$[1].title").value("Recette la plus récente 2"));
+                .andExpect(jsonPath("$[1].title").value("Recette la plus récente 2"))
+                .andExpect(header().string("ETag", "\"3f2a\""));
     }
 
     @Test
-    void testGetRecipeById() throws Exception {
-        Recipe recipe = new Recipe();
-        recipe.setId(1L);
-        recipe.setTitle("Recette par ID");
+    void testGetLatestRecipes_NotModifiedSince_ShouldReturnNotModified() throws Exception {
+        when(recipeService.getLatestRevision(3)).thenReturn(REVISION);
+
+        mockMvc.perform(get("/api/recipes/latest")
+                        .param("n", "3")
+                        .header("If-Modified-Since", "Fri, 10 Jan 2025 12:00:00 GMT"))
+                .andExpect(status().isNotModified());
 
+        verify(recipeService, never()).getLatestRecipeDtos(anyInt());
+    }
+
+    @Test
+    void testGetRecipeById() throws Exception {
         RecipeDTO dto = new RecipeDTO();
         dto.setId(1L);
         dto.setTitle("Recette par ID");
 
-        when(recipeService.getRecipeById(1L)).thenReturn(Optional.of(recipe));
-        when(recipeService.toDto(recipe)).thenReturn(dto);
+        when(recipeService.getRecipeRevision(1L)).thenReturn(Optional.of(REVISION));
+        when(recipeService.getRecipeDtoById(1L)).thenReturn(Optional.of(dto));
 
         mockMvc.perform(get("/api/recipes/by-id/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L))
-                .andExpect(jsonPath("$.title").value("Recette par ID"));
+                .andExpect(jsonPath("$.title").value("Recette par ID"))
+                .andExpect(header().string("ETag", "\"3f2a\""))
+                .andExpect(header().exists("Last-Modified"));
+    }
+
+    @Test
+    void testGetRecipeById_MatchingETag_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        when(recipeService.getRecipeRevision(1L)).thenReturn(Optional.of(REVISION));
+
+        mockMvc.perform(get("/api/recipes/by-id/1").header("If-None-Match", "\"3f2a\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3f2a\""));
+
+        verify(recipeService, never()).getRecipeDtoById(any());
+    }
+
+    @Test
+    void testGetRecipeById_StaleETag_ShouldReturnBody() throws Exception {
+        RecipeDTO dto = new RecipeDTO();
+        dto.setId(1L);
+        when(recipeService.getRecipeRevision(1L)).thenReturn(Optional.of(REVISION));
+        when(recipeService.getRecipeDtoById(1L)).thenReturn(Optional.of(dto));
+
+        mockMvc.perform(get("/api/recipes/by-id/1").header("If-None-Match", "\"0000\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L));
     }
 
     @Test
     void testGetRecipeByIdNotFound() throws Exception {
-        when(recipeService.getRecipeById(999L)).thenReturn(Optional.empty());
+        when(recipeService.getRecipeRevision(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/recipes/by-id/999")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -226,7 +477,7 @@ class RecipeControllerTest {
         updated.setTitle("Updated Recipe");
         updated.setDescription("Updated description");
 
-        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class)))
+        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class), isNull()))
                 .thenReturn(updated);
 
         mockMvc.perform(put("/api/recipes/by-id/1")
@@ -235,7 +486,46 @@ class RecipeControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.title").value("Updated Recipe"))
-                .andExpect(jsonPath("$.description").value("Updated description"));
+                .andExpect(jsonPath("$.description").value("Updated description"))
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void updateRecipe_ShouldForwardIfMatch() throws Exception {
+        UpdateRecipeDTO updated = new UpdateRecipeDTO();
+        updated.setId(1L);
+        updated.setVersion(3L);
+        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class), eq("\"3f2a\""))).thenReturn(updated);
+
+        mockMvc.perform(put("/api/recipes/by-id/1")
+                        .header("If-Match", "\"3f2a\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validUpdate())))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", RecipeRevision.of(List.of(updated)).eTag()));
+    }
+
+    @Test
+    void updateRecipe_WhenPreconditionFails_ShouldReturnPreconditionFailed() throws Exception {
+        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class), eq("\"old\"")))
+                .thenThrow(new PreconditionFailedException("Recipe 1 has been modified since it was read"));
+
+        mockMvc.perform(put("/api/recipes/by-id/1")
+                        .header("If-Match", "\"old\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validUpdate())))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateRecipe_WhenConcurrentlyModified_ShouldReturnConflict() throws Exception {
+        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class), isNull()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Recipe.class, 1L));
+
+        mockMvc.perform(put("/api/recipes/by-id/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validUpdate())))
+                .andExpect(status().isConflict());
     }
 
 
@@ -250,7 +540,7 @@ class RecipeControllerTest {
         updatedDto.setInstructions("Mix and cook");
         updatedDto.setIngredients(List.of(new IngredientDTO("Flour", 100.0, "g")));
 
-        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class)))
+        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class), isNull()))
                 .thenThrow(new IllegalArgumentException("Invalid update"));
 
         mockMvc.perform(put("/api/recipes/by-id/1")
@@ -270,7 +560,7 @@ class RecipeControllerTest {
         updatedDto.setInstructions("Mix and cook");
         updatedDto.setIngredients(List.of(new IngredientDTO("Flour", 100.0, "g")));
 
-        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class)))
+        when(recipeService.updateRecipe(eq(1L), any(RecipeDTO.class), isNull()))
                 .thenThrow(new RuntimeException("Unexpected error"));
 
         mockMvc.perform(put("/api/recipes/by-id/1")
@@ -279,4 +569,14 @@ class RecipeControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
-}
\ No newline at end of file
+    private static RecipeDTO validUpdate() {
+        RecipeDTO dto = new RecipeDTO();
+        dto.setTitle("Updated Recipe");
+        dto.setCategory(RecipeCategory.DESSERT);
+        dto.setDifficulty(1);
+        dto.setCookingTime(10L);
+        dto.setInstructions("Mix and cook");
+        dto.setIngredients(List.of(new IngredientDTO("Flour", 100.0, "g")));
+        return dto;
+    }
+}
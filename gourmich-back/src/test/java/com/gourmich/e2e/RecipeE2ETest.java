@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gourmich.dto.AuthResponse;
 import com.gourmich.dto.LoginRequest;
+import com.gourmich.models.RecipeCategory;
 import com.gourmich.models.Users;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +14,7 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.*;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -97,6 +99,287 @@ class RecipeE2ETest {
         assertThat(found).isTrue();
     }
 
+    @Test
+    void getRecipePage_followsCursorWithoutDuplicates() throws Exception {
+        for (String title : List.of("Pancakes", "Crepes", "Gaufres")) {
+            createRecipe(title, "Breakfast", "DESSERT", List.of(
+                    Map.of("name", "Flour", "quantity", 100.0, "unit", "g")
+            ));
+        }
+
+        ResponseEntity<String> first = restTemplate.getForEntity("/api/recipes/page?size=2", String.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode firstPage = objectMapper.readTree(first.getBody());
+        assertThat(firstPage.get("items").size()).isEqualTo(2);
+        assertThat(firstPage.get("items").get(0).has("ingredients")).isFalse();
+        assertThat(firstPage.get("next").isNull()).isFalse();
+
+        ResponseEntity<String> second = restTemplate.getForEntity(
+                "/api/recipes/page?size=2&cursor=" + firstPage.get("next").asText(), String.class);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode secondPage = objectMapper.readTree(second.getBody());
+
+        List<String> titles = new ArrayList<>();
+        firstPage.get("items").forEach(r -> titles.add(r.get("title").asText()));
+        secondPage.get("items").forEach(r -> titles.add(r.get("title").asText()));
+
+        assertThat(titles).containsExactlyInAnyOrder("Pancakes", "Crepes", "Gaufres");
+        assertThat(secondPage.get("next").isNull()).isTrue();
+    }
+
+    @Test
+    void getRecipePage_filtersByCategoryDifficultyAndCookingTime_withFacets() throws Exception {
+        createRecipe("Mousse", "DESSERT", 1, 20L);
+        createRecipe("Souffle", "DESSERT", 3, 45L);
+        createRecipe("Flan", "DESSERT", 2, 30L);
+        createRecipe("Risotto", "MAIN_COURSE", 2, 25L);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "/api/recipes/page?category=Dessert&difficultyMax=2&cookingTimeMax=30&size=1&facets=true", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode firstPage = objectMapper.readTree(response.getBody());
+        assertThat(firstPage.get("items").get(0).get("title").asText()).isEqualTo("Flan");
+
+        // la facette catégorie ignore le filtre de catégorie, la facette difficulté ignore l'intervalle
+        JsonNode facets = firstPage.get("facets");
+        assertThat(facets.get("categories").get("DESSERT").asLong()).isEqualTo(2);
+        assertThat(facets.get("categories").get("MAIN_COURSE").asLong()).isEqualTo(1);
+        assertThat(facets.get("categories").get("DRINK").asLong()).isZero();
+        assertThat(facets.get("difficulties").get("1").asLong()).isEqualTo(1);
+        assertThat(facets.get("difficulties").get("2").asLong()).isEqualTo(1);
+        assertThat(facets.get("difficulties").has("3")).isFalse();
+
+        JsonNode secondPage = objectMapper.readTree(restTemplate.getForEntity(
+                "/api/recipes/page?category=Dessert&difficultyMax=2&cookingTimeMax=30&size=1&facets=true&cursor="
+                        + firstPage.get("next").asText(), String.class).getBody());
+        assertThat(secondPage.get("items").get(0).get("title").asText()).isEqualTo("Mousse");
+        assertThat(secondPage.get("next").isNull()).isTrue();
+        assertThat(secondPage.has("facets")).isFalse();
+
+        ResponseEntity<String> invalid = restTemplate.getForEntity(
+                "/api/recipes/page?difficultyMin=3&difficultyMax=1", String.class);
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void getCategoryOverview_returnsCountsAndLatestPerCategory() throws Exception {
+        createRecipe("Mousse", "DESSERT", 1, 20L);
+        createRecipe("Souffle", "DESSERT", 3, 45L);
+        createRecipe("Flan", "DESSERT", 2, 30L);
+        createRecipe("Risotto", "MAIN_COURSE", 2, 25L);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/categories/overview?perCategory=2", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Map<String, JsonNode> byCategory = new HashMap<>();
+        objectMapper.readTree(response.getBody()).forEach(block -> byCategory.put(block.get("category").asText(), block));
+        assertThat(byCategory).hasSize(RecipeCategory.values().length);
+
+        JsonNode desserts = byCategory.get("Dessert");
+        assertThat(desserts.get("recipeCount").asLong()).isEqualTo(3);
+        assertThat(desserts.get("latest").size()).isEqualTo(2);
+        assertThat(desserts.get("latest").get(0).get("title").asText()).isEqualTo("Flan");
+        assertThat(desserts.get("latest").get(0).get("authorUsername").asText()).isEqualTo("e2euser");
+        assertThat(byCategory.get("Main Course").get("recipeCount").asLong()).isEqualTo(1);
+        assertThat(byCategory.get("Drink").get("latest").size()).isZero();
+    }
+
+    @Test
+    void getRecipeById_conditionalRequests_revalidateAgainstVersion() throws Exception {
+        long recipeId = createRecipe("Mousse", "DESSERT", 1, 20L).get("id").asLong();
+
+        HttpHeaders auth = new HttpHeaders();
+        auth.set("Authorization", bearerToken);
+        ResponseEntity<String> first = restTemplate.exchange("/api/recipes/by-id/" + recipeId,
+                HttpMethod.GET, new HttpEntity<>(auth), String.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String eTag = first.getHeaders().getETag();
+        assertThat(eTag).isNotBlank();
+        assertThat(first.getHeaders().getLastModified()).isPositive();
+        assertThat(objectMapper.readTree(first.getBody()).get("version").asLong()).isZero();
+
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.set("Authorization", bearerToken);
+        conditional.setIfNoneMatch(eTag);
+        ResponseEntity<String> unchanged = restTemplate.exchange("/api/recipes/by-id/" + recipeId,
+                HttpMethod.GET, new HttpEntity<>(conditional), String.class);
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(unchanged.getBody()).isNull();
+
+        // seuls les ingrédients changent : la version doit quand même avancer
+        Map<String, Object> update = new HashMap<>();
+        update.put("title", "Mousse");
+        update.put("description", "Mousse");
+        update.put("category", "DESSERT");
+        update.put("difficulty", 1);
+        update.put("cookingTime", 20);
+        update.put("instructions", "Mix, cook, eat.");
+        update.put("ingredients", List.of(Map.of("name", "Chocolat", "quantity", 200.0, "unit", "g")));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        assertThat(restTemplate.exchange("/api/recipes/by-id/" + recipeId, HttpMethod.PUT,
+                new HttpEntity<>(update, headers), String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> changed = restTemplate.exchange("/api/recipes/by-id/" + recipeId,
+                HttpMethod.GET, new HttpEntity<>(conditional), String.class);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat(objectMapper.readTree(changed.getBody()).get("version").asLong()).isEqualTo(1);
+
+        HttpHeaders latestConditional = new HttpHeaders();
+        latestConditional.setIfNoneMatch(restTemplate.getForEntity("/api/recipes/latest", String.class).getHeaders().getETag());
+        assertThat(restTemplate.exchange("/api/recipes/latest", HttpMethod.GET,
+                new HttpEntity<>(latestConditional), String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void searchRecipes_matchesTitleAndIngredients_withoutAuthentication() throws Exception {
+        createRecipe("Tarte aux pommes", "Dessert d'automne", "DESSERT", List.of(
+                Map.of("name", "Farine", "quantity", 200.0, "unit", "g")
+        ));
+        createRecipe("Crumble", "Croustillant", "DESSERT", List.of(
+                Map.of("name", "Pommes", "quantity", 4.0, "unit", "pcs")
+        ));
+        createRecipe("Gratin", "Dauphinois", "MAIN_COURSE", List.of(
+                Map.of("name", "Pommes de terre", "quantity", 1.0, "unit", "kg")
+        ));
+        createRecipe("Soupe", "Legumes", "SNACK", List.of(
+                Map.of("name", "Carottes", "quantity", 3.0, "unit", "pcs")
+        ));
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/recipes/search?q=POMMES&size=2", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode firstPage = objectMapper.readTree(response.getBody());
+        assertThat(firstPage.get("items").size()).isEqualTo(2);
+        // le titre qui correspond passe avant les correspondances sur les ingrédients
+        assertThat(firstPage.get("items").get(0).get("title").asText()).isEqualTo("Tarte aux pommes");
+
+        ResponseEntity<String> second = restTemplate.getForEntity(
+                "/api/recipes/search?q=POMMES&size=2&cursor=" + firstPage.get("next").asText(), String.class);
+        JsonNode secondPage = objectMapper.readTree(second.getBody());
+
+        List<String> titles = new ArrayList<>();
+        firstPage.get("items").forEach(r -> titles.add(r.get("title").asText()));
+        secondPage.get("items").forEach(r -> titles.add(r.get("title").asText()));
+        assertThat(titles).containsExactlyInAnyOrder("Tarte aux pommes", "Crumble", "Gratin");
+        assertThat(secondPage.get("next").isNull()).isTrue();
+    }
+
+    @Test
+    void searchRecipes_blankQuery_returnsBadRequest() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/recipes/search?q=", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void findRecipesForPantry_followsRecipeChanges() throws Exception {
+        JsonNode crepes = createRecipe("Crepes", "Fines", "DESSERT", List.of(
+                Map.of("name", "Oeufs", "quantity", 3.0, "unit", "pcs"),
+                Map.of("name", "Lait", "quantity", 500.0, "unit", "ml"),
+                Map.of("name", "Farine", "quantity", 250.0, "unit", "g")
+        ));
+        createRecipe("Gratin", "Dauphinois", "MAIN_COURSE", List.of(
+                Map.of("name", "Pommes de terre", "quantity", 1.0, "unit", "kg"),
+                Map.of("name", "Crème", "quantity", 20.0, "unit", "cl")
+        ));
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "/api/recipes/pantry?ingredients=œufs,lait,farine&maxMissing=0", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode matches = objectMapper.readTree(response.getBody());
+        assertThat(matches.size()).isEqualTo(1);
+        assertThat(matches.get(0).get("recipe").get("title").asText()).isEqualTo("Crepes");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        restTemplate.exchange("/api/recipes/by-id/" + crepes.get("id").asLong(), HttpMethod.DELETE,
+                new HttpEntity<>(headers), Void.class);
+
+        JsonNode afterDelete = objectMapper.readTree(restTemplate.getForEntity(
+                "/api/recipes/pantry?ingredients=oeufs,lait,farine&maxMissing=0", String.class).getBody());
+        assertThat(afterDelete.size()).isZero();
+    }
+
+    @Test
+    void importRecipes_ndjson_importsValidRecordsAndReportsRejects() throws Exception {
+        createRecipe("Crepes", "Fines", "DESSERT", List.of(Map.of("name", "Farine", "quantity", 250.0, "unit", "g")));
+
+        String ndjson = String.join("\n",
+                "{\"title\": \"Crepes\", \"category\": \"Dessert\", \"difficulty\": 1, \"cookingTime\": 20, "
+                        + "\"instructions\": \"Cook\", \"ingredients\": [{\"name\": \"Lait\", \"quantity\": 1, \"unit\": \"l\"}]}",
+                "{\"title\": \"Gratin\", \"category\": \"Main Course\", \"difficulty\": 2, \"cookingTime\": 60, "
+                        + "\"instructions\": \"Bake\", \"ingredients\": [{\"name\": \"Pommes de terre\", \"quantity\": 1, \"unit\": \"kg\"}, "
+                        + "{\"name\": \"Crème\", \"quantity\": 20, \"unit\": \"cl\"}]}",
+                "{\"title\": \"Brunch\", \"category\": \"Brunch\"}");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        headers.set("Authorization", bearerToken);
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/api/recipes/bulk", new HttpEntity<>(ndjson, headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode report = objectMapper.readTree(response.getBody());
+        assertThat(report.get("received").asInt()).isEqualTo(3);
+        assertThat(report.get("imported").asInt()).isEqualTo(1);
+        assertThat(report.get("rejects").findValuesAsText("record")).containsExactly("1", "3");
+
+        // les recettes importées sont visibles des index en mémoire sans redémarrage
+        JsonNode matches = objectMapper.readTree(restTemplate.getForEntity(
+                "/api/recipes/pantry?ingredients=pommes de terre,creme&maxMissing=0", String.class).getBody());
+        assertThat(matches.size()).isEqualTo(1);
+        assertThat(matches.get(0).get("recipe").get("title").asText()).isEqualTo("Gratin");
+    }
+
+    @Test
+    void exportRecipes_streamsNdjsonThatCanBeImportedBack() throws Exception {
+        createRecipe("Crepes", "Fines", "DESSERT", List.of(
+                Map.of("name", "Farine", "quantity", 250.0, "unit", "g"),
+                Map.of("name", "Lait", "quantity", 500.0, "unit", "ml")
+        ));
+        createRecipe("Gratin", "Dauphinois", "MAIN_COURSE", List.of(
+                Map.of("name", "Pommes de terre", "quantity", 1.0, "unit", "kg")
+        ));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        ResponseEntity<String> export = restTemplate.exchange("/api/recipes/export", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertThat(export.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(export.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        String[] lines = export.getBody().split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode crepes = objectMapper.readTree(lines[0]);
+        assertThat(crepes.get("title").asText()).isEqualTo("Crepes");
+        assertThat(crepes.get("ingredients").findValuesAsText("name")).containsExactly("Farine", "Lait");
+
+        // réimporté par le même auteur, chaque ligne est reconnue comme un doublon
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        JsonNode report = objectMapper.readTree(restTemplate.postForEntity("/api/recipes/bulk",
+                new HttpEntity<>(export.getBody(), headers), String.class).getBody());
+        assertThat(report.get("received").asInt()).isEqualTo(2);
+        assertThat(report.get("rejected").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    void exportRecipes_unauthorized_noToken() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/recipes/export", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void importRecipes_unauthorized_noToken() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/api/recipes/bulk", new HttpEntity<>("[]", headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
     @Test
     void getRecipeById_success() throws Exception {
         JsonNode createdRecipe = createRecipe("Pancakes", "Fluffy pancakes", "DESSERT", List.of(
@@ -171,6 +454,38 @@ class RecipeE2ETest {
         assertThat(updatedRecipe.get("ingredients").get(1).get("name").asText()).isEqualTo("Blueberries");
     }
 
+    @Test
+    void getRecipeById_afterUpdate_returnsFreshData() throws Exception {
+        JsonNode createdRecipe = createRecipe("Pancakes", "Fluffy pancakes", "DESSERT", List.of(
+                Map.of("name", "Flour", "quantity", 100.0, "unit", "g")
+        ));
+        long recipeId = createdRecipe.get("id").asLong();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", bearerToken);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> before = restTemplate.exchange(
+                "/api/recipes/by-id/" + recipeId, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(objectMapper.readTree(before.getBody()).get("title").asText()).isEqualTo("Pancakes");
+
+        Map<String, Object> update = new HashMap<>();
+        update.put("title", "Crepes");
+        update.put("description", "Thin pancakes");
+        update.put("category", "DESSERT");
+        update.put("difficulty", 1);
+        update.put("cookingTime", 10);
+        update.put("instructions", "Mix, cook, eat.");
+        update.put("ingredients", List.of(Map.of("name", "Flour", "quantity", 50.0, "unit", "g")));
+        ResponseEntity<String> updated = restTemplate.exchange(
+                "/api/recipes/by-id/" + recipeId, HttpMethod.PUT, new HttpEntity<>(update, headers), String.class);
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> after = restTemplate.exchange(
+                "/api/recipes/by-id/" + recipeId, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(objectMapper.readTree(after.getBody()).get("title").asText()).isEqualTo("Crepes");
+    }
+
     @Test
     void deleteRecipe_success() throws Exception {
         JsonNode createdRecipe = createRecipe("Pancakes", "Fluffy pancakes", "DESSERT", List.of(
@@ -497,7 +812,22 @@ class RecipeE2ETest {
         payload.put("category", category);
         payload.put("instructions", "Mix, cook, eat.");
         payload.put("ingredients", ingredients);
+        return postRecipe(payload);
+    }
+
+    private JsonNode createRecipe(String title, String category, int difficulty, long cookingTime) throws Exception {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("title", title);
+        payload.put("description", title);
+        payload.put("category", category);
+        payload.put("difficulty", difficulty);
+        payload.put("cookingTime", cookingTime);
+        payload.put("instructions", "Mix, cook, eat.");
+        payload.put("ingredients", List.of(Map.of("name", "Sucre", "quantity", 50.0, "unit", "g")));
+        return postRecipe(payload);
+    }
 
+    private JsonNode postRecipe(Map<String, Object> payload) throws Exception {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.set("Authorization", bearerToken);
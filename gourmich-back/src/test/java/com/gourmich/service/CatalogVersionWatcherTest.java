@@ -0,0 +1,69 @@
+package com.gourmich.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.Mockito.*;
+
+class CatalogVersionWatcherTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private RecipeService recipeService;
+
+    @InjectMocks
+    private CatalogVersionWatcher catalogVersionWatcher;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    void pollVersion_ShouldReloadOnlyWhenAnotherProcessMovedTheVersion() {
+        when(jdbcTemplate.queryForObject(CatalogVersionWatcher.READ_VERSION, Long.class))
+                .thenReturn(3L, 3L, 4L, 4L);
+        catalogVersionWatcher.init();
+
+        catalogVersionWatcher.pollVersion();
+        verifyNoInteractions(recipeService);
+
+        catalogVersionWatcher.pollVersion();
+        catalogVersionWatcher.pollVersion();
+        verify(recipeService, times(1)).reloadCatalog();
+    }
+
+    @Test
+    void pollVersion_UnreadableAtStartup_ShouldOnlyRecordTheFirstVersion() {
+        when(jdbcTemplate.queryForObject(CatalogVersionWatcher.READ_VERSION, Long.class))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(3L);
+        catalogVersionWatcher.init();
+
+        catalogVersionWatcher.pollVersion();
+
+        verifyNoInteractions(recipeService);
+    }
+
+    @Test
+    void bump_ShouldAdvanceTheVersion() {
+        catalogVersionWatcher.bump();
+
+        verify(jdbcTemplate).update(CatalogVersionWatcher.BUMP_VERSION);
+    }
+}
@@ -0,0 +1,143 @@
+package com.gourmich.service;
+
+import com.gourmich.config.DatabaseVendor;
+import com.gourmich.dto.CategoryOverviewDTO;
+import com.gourmich.event.RecipeCatalogReloadedEvent;
+import com.gourmich.event.RecipeChangedEvent;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.repo.CategoryOverviewRow;
+import com.gourmich.repo.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CategoryOverviewServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private DatabaseVendor databaseVendor;
+
+    @InjectMocks
+    private CategoryOverviewService categoryOverviewService;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    void getOverview_OnPostgreSql_ShouldReadMaterializedViewAndListEveryCategory() {
+        when(databaseVendor.isPostgreSql()).thenReturn(true);
+        List<CategoryOverviewRow> rows = List.of(row("DESSERT", 5L, 9L), row("DESSERT", 5L, 7L), row("DRINK", 1L, 3L));
+        when(recipeRepository.findCategoryOverview(2)).thenReturn(rows);
+
+        List<CategoryOverviewDTO> overview = categoryOverviewService.getOverview(2);
+
+        assertEquals(RecipeCategory.values().length, overview.size());
+        CategoryOverviewDTO desserts = find(overview, RecipeCategory.DESSERT);
+        assertEquals(5L, desserts.getRecipeCount());
+        assertEquals(List.of(9L, 7L), desserts.getLatest().stream().map(r -> r.getId()).toList());
+        assertEquals(RecipeCategory.DESSERT, desserts.getLatest().get(0).getCategory());
+        assertEquals(0L, find(overview, RecipeCategory.STARTER).getRecipeCount());
+        assertTrue(find(overview, RecipeCategory.STARTER).getLatest().isEmpty());
+        verify(recipeRepository, never()).computeCategoryOverview(anyInt());
+    }
+
+    @Test
+    void getOverview_OnH2_ShouldComputeOnTheFlyWithDefaultDepth() {
+        when(databaseVendor.isPostgreSql()).thenReturn(false);
+        when(recipeRepository.computeCategoryOverview(6)).thenReturn(List.of());
+
+        categoryOverviewService.getOverview(null);
+
+        verify(recipeRepository).computeCategoryOverview(6);
+        verify(recipeRepository, never()).findCategoryOverview(anyInt());
+    }
+
+    @Test
+    void getOverview_DepthOutOfRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> categoryOverviewService.getOverview(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> categoryOverviewService.getOverview(CategoryOverviewService.MAX_PER_CATEGORY + 1));
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void refreshIfStale_ShouldRefreshOnceUntilNextChange() {
+        when(databaseVendor.isPostgreSql()).thenReturn(true);
+
+        // la vue est considérée périmée au démarrage
+        categoryOverviewService.refreshIfStale();
+        categoryOverviewService.refreshIfStale();
+        verify(recipeRepository, times(1)).refreshCategoryOverview();
+
+        categoryOverviewService.onRecipeChanged(new RecipeChangedEvent(1L));
+        categoryOverviewService.onRecipeChanged(new RecipeChangedEvent(2L));
+        categoryOverviewService.refreshIfStale();
+        verify(recipeRepository, times(2)).refreshCategoryOverview();
+    }
+
+    @Test
+    void refreshIfStale_AfterCatalogReload_ShouldRefreshAgain() {
+        when(databaseVendor.isPostgreSql()).thenReturn(true);
+        categoryOverviewService.refreshIfStale();
+
+        categoryOverviewService.onCatalogReloaded(new RecipeCatalogReloadedEvent());
+        categoryOverviewService.refreshIfStale();
+
+        verify(recipeRepository, times(2)).refreshCategoryOverview();
+    }
+
+    @Test
+    void refreshIfStale_WhenRefreshFails_ShouldRetryOnNextRun() {
+        when(databaseVendor.isPostgreSql()).thenReturn(true);
+        doThrow(new RuntimeException("lock timeout")).doNothing().when(recipeRepository).refreshCategoryOverview();
+
+        categoryOverviewService.refreshIfStale();
+        categoryOverviewService.refreshIfStale();
+        categoryOverviewService.refreshIfStale();
+
+        verify(recipeRepository, times(2)).refreshCategoryOverview();
+    }
+
+    @Test
+    void refreshIfStale_OnH2_ShouldDoNothing() {
+        when(databaseVendor.isPostgreSql()).thenReturn(false);
+
+        categoryOverviewService.refreshIfStale();
+
+        verify(recipeRepository, never()).refreshCategoryOverview();
+    }
+
+    private static CategoryOverviewDTO find(List<CategoryOverviewDTO> overview, RecipeCategory category) {
+        return overview.stream().filter(block -> block.getCategory() == category).findFirst().orElseThrow();
+    }
+
+    private static CategoryOverviewRow row(String category, long count, long id) {
+        CategoryOverviewRow row = mock(CategoryOverviewRow.class);
+        when(row.getCategory()).thenReturn(category);
+        when(row.getRecipeCount()).thenReturn(count);
+        when(row.getId()).thenReturn(id);
+        when(row.getTitle()).thenReturn("Recipe " + id);
+        when(row.getCreatedAt()).thenReturn(LocalDateTime.of(2025, 1, 1, 12, 0).plusHours(id));
+        return row;
+    }
+}
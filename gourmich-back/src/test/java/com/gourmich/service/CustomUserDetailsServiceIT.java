@@ -77,4 +77,13 @@ class CustomUserDetailsServiceIT {
         assertThrows(UsernameNotFoundException.class,
                 () -> userDetailsService.loadUserEntityByUsername("ghost"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void updatePassword_ShouldRefreshCachedPrincipal() {
+        assertEquals(user.getPassword(), userDetailsService.loadPrincipalByUsername("john").getPassword());
+
+        userDetailsService.updatePassword(new UserPrincipal(user), "$2a$12$newhash");
+
+        assertEquals("$2a$12$newhash", userDetailsService.loadPrincipalByUsername("john").getPassword());
+    }
+}
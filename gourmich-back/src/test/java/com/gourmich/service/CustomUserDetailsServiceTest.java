@@ -1,5 +1,6 @@
 package com.gourmich.service;
 
+import com.gourmich.event.UserChangedEvent;
 import com.gourmich.models.Users;
 import com.gourmich.models.UserPrincipal;
 import com.gourmich.repo.UserRepository;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
@@ -23,6 +25,12 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CustomUserDetailsService userDetailsService;
 
@@ -80,4 +88,16 @@ class CustomUserDetailsServiceTest {
 
         assertEquals("User not found.", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void updatePassword_ShouldStoreNewHashAndEvictPrincipal() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        UserDetails updated = userDetailsService.updatePassword(new UserPrincipal(testUser), "$2a$12$newhash");
+
+        assertEquals("$2a$12$newhash", updated.getPassword());
+        assertEquals("$2a$12$newhash", testUser.getPassword());
+        verify(userRepository).save(testUser);
+        verify(eventPublisher).publishEvent(new UserChangedEvent("testuser"));
+    }
+}
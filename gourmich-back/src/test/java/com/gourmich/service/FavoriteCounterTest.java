@@ -0,0 +1,161 @@
+package com.gourmich.service;
+
+import com.gourmich.event.FavoriteCountsFlushedEvent;
+import com.gourmich.event.FavoriteToggledEvent;
+import com.gourmich.repo.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FavoriteCounterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private FavoriteCounter favoriteCounter;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+        doAnswer(i -> {
+            i.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    void flush_ShouldWriteNetDeltasInOneBatchSortedById() {
+        toggle(9L, -1);
+        toggle(5L, 1);
+        toggle(2L, 1);
+        toggle(5L, 1);
+        toggle(2L, -1);
+
+        favoriteCounter.flush();
+
+        List<Object[]> batch = capturedBatches().get(0);
+        assertEquals(2, batch.size());
+        assertArrayEquals(new Object[]{2L, 5L}, batch.get(0));
+        assertArrayEquals(new Object[]{-1L, 9L}, batch.get(1));
+        verify(eventPublisher).publishEvent(new FavoriteCountsFlushedEvent(Set.of(5L, 9L)));
+    }
+
+    @Test
+    void flush_NothingPending_ShouldNotTouchTheDatabase() {
+        favoriteCounter.flush();
+        toggle(4L, 1);
+        favoriteCounter.flush();
+        favoriteCounter.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(FavoriteCounter.ADD_TO_COUNT), anyList());
+    }
+
+    @Test
+    void flush_Failure_ShouldRetryTheSameDeltasOnNextRun() {
+        when(jdbcTemplate.batchUpdate(eq(FavoriteCounter.ADD_TO_COUNT), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+        toggle(4L, 1);
+
+        favoriteCounter.flush();
+        toggle(4L, 1);
+        favoriteCounter.flush();
+
+        List<List<Object[]>> batches = capturedBatches();
+        assertEquals(2, batches.size());
+        assertArrayEquals(new Object[]{2L, 4L}, batches.get(1).get(0));
+        verify(eventPublisher, times(1)).publishEvent(any(FavoriteCountsFlushedEvent.class));
+    }
+
+    @Test
+    void reconcile_ShouldRecountFromTheFavoriteTable() {
+        favoriteCounter.reconcile();
+
+        verify(recipeRepository).reconcileFavoriteCounts();
+    }
+
+    @Test
+    void lifecycle_ShouldReconcileBeforeTheWebServerAndFlushOnStop() {
+        assertTrue(favoriteCounter.getPhase() < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+
+        favoriteCounter.start();
+        verify(recipeRepository).reconcileFavoriteCounts();
+        assertTrue(favoriteCounter.isRunning());
+
+        toggle(4L, 1);
+        favoriteCounter.stop();
+        assertArrayEquals(new Object[]{1L, 4L}, capturedBatches().get(0).get(0));
+        assertFalse(favoriteCounter.isRunning());
+    }
+
+    @Test
+    void reconcilePeriodically_ShouldFlushLocalDeltasBeforeRecounting() {
+        toggle(4L, 1);
+
+        favoriteCounter.reconcilePeriodically();
+
+        var inOrder = inOrder(jdbcTemplate, recipeRepository);
+        inOrder.verify(jdbcTemplate).batchUpdate(eq(FavoriteCounter.ADD_TO_COUNT), anyList());
+        inOrder.verify(recipeRepository).reconcileFavoriteCounts();
+    }
+
+    @Test
+    void lifecycle_InImportProcess_ShouldNotReconcile() {
+        favoriteCounter.importFile = "catalogue.ndjson";
+
+        favoriteCounter.start();
+        favoriteCounter.reconcilePeriodically();
+
+        verifyNoInteractions(recipeRepository);
+        assertTrue(favoriteCounter.isRunning());
+    }
+
+    // ------------------- Tools -------------------
+
+    private void toggle(Long recipeId, int delta) {
+        favoriteCounter.onFavoriteToggled(new FavoriteToggledEvent(recipeId, delta));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> capturedBatches() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass((Class<List<Object[]>>) (Class<?>) ArrayList.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(eq(FavoriteCounter.ADD_TO_COUNT), captor.capture());
+        return captor.getAllValues();
+    }
+}
@@ -1,7 +1,11 @@
 package com.gourmich.service;
 
 import com.gourmich.dto.FavoriteDTO;
+import com.gourmich.dto.FavoritePageDTO;
+import com.gourmich.exception.ResourceNotFoundException;
 import com.gourmich.models.Favorite;
+import com.gourmich.models.UserPrincipal;
+import com.gourmich.models.RecipeCategory;
 import com.gourmich.models.Users;
 import com.gourmich.repo.FavoriteRepository;
 import com.gourmich.repo.RecipeRepository;
@@ -11,12 +15,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -51,6 +58,12 @@ public class FavoriteServiceIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FavoriteCounter favoriteCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Users user;
     private Recipe recipe;
 
@@ -168,6 +181,106 @@ public class FavoriteServiceIT {
                 () -> favoriteService.toggleFavoriteForCurrentUser(999L)); // id inexistant
     }
 
+    @Test
+    void toggleFavorite_ShouldReachFavoriteCountOnFlush() {
+        favoriteService.toggleFavoriteForCurrentUser(recipe.getId());
+        favoriteCounter.flush();
+        assertEquals(1L, favoriteCount());
+
+        favoriteService.toggleFavoriteForCurrentUser(recipe.getId());
+        favoriteCounter.flush();
+        assertEquals(0L, favoriteCount());
+    }
+
+    @Test
+    void addFavorite_ShouldBeIdempotent() {
+        assertTrue(favoriteService.addFavoriteForCurrentUser(recipe.getId()));
+        assertFalse(favoriteService.addFavoriteForCurrentUser(recipe.getId()));
+        favoriteCounter.flush();
+
+        assertEquals(1, favoriteRepository.count());
+        assertEquals(1L, favoriteCount());
+    }
+
+    @Test
+    void addFavorite_ShouldThrow_WhenRecipeNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> favoriteService.addFavoriteForCurrentUser(999L));
+        assertEquals(0, favoriteRepository.count());
+    }
+
+    @Test
+    void addFavorite_ShouldNotReportDeletedUserAsMissingRecipe() {
+        Users ghost = new Users("ghost@example.com", "ghost", "secret");
+        ghost.setId(9999L);
+        Authentication auth = new UsernamePasswordAuthenticationToken(new UserPrincipal(ghost), "secret", Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> favoriteService.addFavoriteForCurrentUser(recipe.getId()));
+        assertEquals(0, favoriteRepository.count());
+    }
+
+    @Test
+    void removeFavorite_ShouldBeIdempotent() {
+        favoriteService.addFavoriteForCurrentUser(recipe.getId());
+
+        assertTrue(favoriteService.removeFavoriteForCurrentUser(recipe.getId()));
+        assertFalse(favoriteService.removeFavoriteForCurrentUser(recipe.getId()));
+        favoriteCounter.flush();
+
+        assertEquals(0, favoriteRepository.count());
+        assertEquals(0L, favoriteCount());
+    }
+
+    @Test
+    void getFavoritePage_ShouldWalkFavoritesNewestFirst() {
+        LocalDateTime addAt = LocalDateTime.of(2025, 3, 1, 12, 0);
+        recipe.setCategory(RecipeCategory.DESSERT);
+        recipeRepository.save(recipe);
+        saveFavorite(recipe, addAt);
+        saveFavorite(newRecipe("Tiramisu", RecipeCategory.DESSERT), addAt);
+        saveFavorite(newRecipe("Soup", RecipeCategory.STARTER), addAt.plusHours(1));
+        saveFavorite(newRecipe("Flan", RecipeCategory.DESSERT), addAt.minusHours(1));
+
+        FavoritePageDTO first = favoriteService.getFavoritePageForCurrentUser(null, null, 2);
+        FavoritePageDTO second = favoriteService.getFavoritePageForCurrentUser(null, first.getNext(), 2);
+
+        assertEquals(List.of("Soup", "Tiramisu"), first.getItems().stream().map(FavoriteDTO::getTitle).toList());
+        assertEquals(List.of("Pasta", "Flan"), second.getItems().stream().map(FavoriteDTO::getTitle).toList());
+        assertNull(second.getNext());
+
+        FavoritePageDTO desserts = favoriteService.getFavoritePageForCurrentUser(RecipeCategory.DESSERT, null, 10);
+        assertEquals(List.of("Tiramisu", "Pasta", "Flan"),
+                desserts.getItems().stream().map(FavoriteDTO::getTitle).toList());
+    }
+
+    @Test
+    void flush_ShouldRefreshCachedRecipeAndItsETag() {
+        assertEquals(0L, recipeService.getRecipeDtoById(recipe.getId()).orElseThrow().getFavoriteCount());
+        String eTag = recipeService.getRecipeRevision(recipe.getId()).orElseThrow().eTag();
+
+        favoriteService.addFavoriteForCurrentUser(recipe.getId());
+        favoriteCounter.flush();
+
+        assertEquals(1L, recipeService.getRecipeDtoById(recipe.getId()).orElseThrow().getFavoriteCount());
+        RecipeRevision revision = recipeService.getRecipeRevision(recipe.getId()).orElseThrow();
+        assertNotEquals(eTag, revision.eTag());
+        assertTrue(revision.matches(eTag));
+    }
+
+    @Test
+    void reconcile_ShouldRealignDriftedFavoriteCount() {
+        Favorite favorite = new Favorite();
+        favorite.setUser(user);
+        favorite.setRecipe(recipe);
+        favoriteRepository.save(favorite);
+        jdbcTemplate.update("UPDATE recipes SET favorite_count = 7 WHERE id = ?", recipe.getId());
+
+        favoriteCounter.reconcile();
+
+        assertEquals(1L, favoriteCount());
+    }
+
     @Test
     void isAlreadyFavoriteForCurrentUser_ShouldReturnTrue_WhenRecipeIsFavorited() {
         Favorite favorite = new Favorite();
@@ -241,4 +354,24 @@ public class FavoriteServiceIT {
                 "Doit lever une exception si l'utilisateur authentifié n'existe pas en DB"
         );
     }
+
+    private Recipe newRecipe(String title, RecipeCategory category) {
+        Recipe other = new Recipe();
+        other.setTitle(title);
+        other.setCategory(category);
+        other.setAuthor(user);
+        return recipeRepository.save(other);
+    }
+
+    private void saveFavorite(Recipe favoriteRecipe, LocalDateTime addAt) {
+        Favorite favorite = new Favorite();
+        favorite.setUser(user);
+        favorite.setRecipe(favoriteRecipe);
+        favorite.setAddAt(addAt);
+        favoriteRepository.save(favorite);
+    }
+
+    private long favoriteCount() {
+        return jdbcTemplate.queryForObject("SELECT favorite_count FROM recipes WHERE id = ?", Long.class, recipe.getId());
+    }
 }
@@ -1,26 +1,39 @@
 package com.gourmich.service;
 
+import com.gourmich.config.DatabaseVendor;
 import com.gourmich.dto.FavoriteDTO;
-import com.gourmich.models.Favorite;
-import com.gourmich.models.Recipe;
+import com.gourmich.dto.FavoritePageDTO;
+import com.gourmich.event.FavoriteToggledEvent;
+import com.gourmich.exception.ResourceNotFoundException;
 import com.gourmich.models.RecipeCategory;
+import com.gourmich.models.UserPrincipal;
 import com.gourmich.models.Users;
 import com.gourmich.repo.FavoriteRepository;
-import com.gourmich.repo.RecipeRepository;
 import com.gourmich.repo.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class FavoriteServiceTest {
@@ -32,7 +45,13 @@ class FavoriteServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RecipeRepository recipeRepository;
+    private DatabaseVendor databaseVendor;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     @InjectMocks
     private FavoriteService favoriteService;
@@ -40,6 +59,8 @@ class FavoriteServiceTest {
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
 
         // Simule un utilisateur connecté pour tous les tests
         TestingAuthenticationToken auth =
@@ -70,7 +91,7 @@ class FavoriteServiceTest {
         auth.setAuthenticated(true);
         SecurityContextHolder.getContext().setAuthentication(auth);
 
-        when(userRepository.findByUsername("ghostuser")).thenReturn(Optional.empty());
+        when(userRepository.findIdByUsername("ghostuser")).thenReturn(Optional.empty());
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> favoriteService.getFavoritesForCurrentUser());
@@ -78,22 +99,11 @@ class FavoriteServiceTest {
     }
     @Test
     void getFavoritesForCurrentUser_ShouldReturnList() {
-        Users user = new Users();
-        user.setId(1L);
-        user.setUsername("testuser");
+        FavoriteDTO fav = new FavoriteDTO(1L, 10L, "Recette 1", null, null, "testuser", null,
+                RecipeCategory.MAIN_COURSE, null);
 
-        Recipe recipe = new Recipe();
-        recipe.setId(10L);
-        recipe.setTitle("Recette 1");
-        recipe.setAuthor(user);
-        recipe.setCategory(RecipeCategory.MAIN_COURSE);
-
-        Favorite fav = new Favorite();
-        fav.setId(1L);
-        fav.setRecipe(recipe);
-
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(favoriteRepository.findFavoritesWithRecipeAndAuthor(1L)).thenReturn(List.of(fav));
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.findFavoriteDtosByUserId(1L)).thenReturn(List.of(fav));
 
         List<FavoriteDTO> result = favoriteService.getFavoritesForCurrentUser();
 
@@ -111,45 +121,30 @@ class FavoriteServiceTest {
     // ------------------- toggleFavoriteForCurrentUser -------------------
     @Test
     void toggleFavoriteForCurrentUser_AddFavorite() {
-        Users user = new Users();
-        user.setId(1L);
-        user.setUsername("testuser");
-
-        Recipe recipe = new Recipe();
-        recipe.setId(10L);
-        recipe.setTitle("Recette 1");
-        recipe.setAuthor(user);
+        FavoriteDTO dto = new FavoriteDTO(100L, 10L, "Recette 1", null, null, "testuser", null,
+                RecipeCategory.MAIN_COURSE, null);
 
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(favoriteRepository.findByUserIdAndRecipeId(1L, 10L)).thenReturn(Optional.empty());
-        when(recipeRepository.findById(10L)).thenReturn(Optional.of(recipe));
-        when(favoriteRepository.save(any(Favorite.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.deleteByUserIdAndRecipeId(1L, 10L)).thenReturn(0);
+        when(favoriteRepository.insertIfAbsent(1L, 10L)).thenReturn(1);
+        when(favoriteRepository.findFavoriteDto(1L, 10L)).thenReturn(Optional.of(dto));
 
         FavoriteDTO result = favoriteService.toggleFavoriteForCurrentUser(10L);
         assertNotNull(result);
         assertEquals(10L, result.getRecipeId());
+        verify(favoriteRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new FavoriteToggledEvent(10L, 1));
     }
 
     @Test
     void toggleFavoriteForCurrentUser_RemoveFavorite() {
-        Users user = new Users();
-        user.setId(1L);
-        user.setUsername("testuser");
-
-        Recipe recipe = new Recipe();
-        recipe.setId(10L);
-        recipe.setTitle("Recette 1");
-
-        Favorite fav = new Favorite();
-        fav.setId(100L);
-        fav.setRecipe(recipe);
-
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(favoriteRepository.findByUserIdAndRecipeId(1L, 10L)).thenReturn(Optional.of(fav));
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.deleteByUserIdAndRecipeId(1L, 10L)).thenReturn(1);
 
         FavoriteDTO result = favoriteService.toggleFavoriteForCurrentUser(10L);
         assertNull(result);
-        verify(favoriteRepository, times(1)).delete(fav);
+        verify(favoriteRepository, never()).insertIfAbsent(any(), any());
+        verify(eventPublisher).publishEvent(new FavoriteToggledEvent(10L, -1));
     }
 
     @Test
@@ -168,7 +163,7 @@ class FavoriteServiceTest {
         auth.setAuthenticated(true);
         SecurityContextHolder.getContext().setAuthentication(auth);
 
-        when(userRepository.findByUsername("ghostuser")).thenReturn(Optional.empty());
+        when(userRepository.findIdByUsername("ghostuser")).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class, () ->
                         favoriteService.toggleFavoriteForCurrentUser(10L),
@@ -178,48 +173,121 @@ class FavoriteServiceTest {
 
     @Test
     void toggleFavoriteForCurrentUser_RecipeNotFound_ShouldThrow() {
-        Users user = new Users();
-        user.setId(1L);
-        user.setUsername("testuser");
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.insertIfAbsent(1L, 10L)).thenThrow(new DataIntegrityViolationException("fk_favorite_recipe"));
 
-        TestingAuthenticationToken auth =
-                new TestingAuthenticationToken("testuser", null);
-        auth.setAuthenticated(true);
-        SecurityContextHolder.getContext().setAuthentication(auth);
+        assertThrows(ResourceNotFoundException.class, () -> favoriteService.toggleFavoriteForCurrentUser(10L));
+        verifyNoInteractions(eventPublisher);
+    }
 
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(favoriteRepository.findByUserIdAndRecipeId(1L, 10L)).thenReturn(Optional.empty());
-        when(recipeRepository.findById(10L)).thenReturn(Optional.empty());
+    // ------------------- getFavoritePageForCurrentUser -------------------
+    @Test
+    void getFavoritePageForCurrentUser_ShouldResumeAfterLastRow() {
+        LocalDateTime addAt = LocalDateTime.of(2025, 3, 1, 12, 0, 30);
+        FavoriteDTO first = new FavoriteDTO(7L, 10L, "Recette 1", null, null, "testuser", null,
+                RecipeCategory.DESSERT, addAt);
+        FavoriteDTO second = new FavoriteDTO(6L, 11L, "Recette 2", null, null, "testuser", null,
+                RecipeCategory.DESSERT, addAt.minusDays(1));
+
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.findFavoritePage(1L, RecipeCategory.DESSERT, null, null, 2))
+                .thenReturn(List.of(first, second));
+        when(favoriteRepository.findFavoritePage(1L, RecipeCategory.DESSERT, addAt, 7L, 2))
+                .thenReturn(List.of(second));
+
+        FavoritePageDTO page = favoriteService.getFavoritePageForCurrentUser(RecipeCategory.DESSERT, null, 1);
+        assertEquals(List.of(first), page.getItems());
+        assertNotNull(page.getNext());
+
+        FavoritePageDTO next = favoriteService.getFavoritePageForCurrentUser(RecipeCategory.DESSERT, page.getNext(), 1);
+        assertEquals(List.of(second), next.getItems());
+        assertNull(next.getNext());
+    }
 
-        assertThrows(RuntimeException.class, () ->
-                        favoriteService.toggleFavoriteForCurrentUser(10L),
-                "Recette non trouvée"
-        );
+    @Test
+    void getFavoritePageForCurrentUser_InvalidCursor_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> favoriteService.getFavoritePageForCurrentUser(null, "not-a-cursor", 10));
+        verify(favoriteRepository, never()).findFavoritePage(any(), any(), any(), any(), anyInt());
+    }
+
+    // ------------------- addFavoriteForCurrentUser / removeFavoriteForCurrentUser -------------------
+    @Test
+    void addFavoriteForCurrentUser_OnPostgreSql_ShouldUseOnConflict() {
+        when(databaseVendor.isPostgreSql()).thenReturn(true);
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.insertIgnoringConflict(1L, 10L)).thenReturn(1);
+
+        assertTrue(favoriteService.addFavoriteForCurrentUser(10L));
+        verify(favoriteRepository, never()).insertIfAbsent(any(), any());
+        verify(eventPublisher).publishEvent(new FavoriteToggledEvent(10L, 1));
+    }
+
+    @Test
+    void addFavoriteForCurrentUser_AlreadyFavorite_ShouldChangeNothing() {
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.insertIfAbsent(1L, 10L)).thenReturn(0);
+
+        assertFalse(favoriteService.addFavoriteForCurrentUser(10L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void addFavoriteForCurrentUser_LostRaceOnUniqueConstraint_ShouldReportAlreadyPresent() {
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.insertIfAbsent(1L, 10L)).thenThrow(violation("uc_favorite"));
+
+        assertFalse(favoriteService.addFavoriteForCurrentUser(10L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void addFavoriteForCurrentUser_DeletedUser_ShouldNotLookLikeAMissingRecipe() {
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.insertIfAbsent(1L, 10L)).thenThrow(violation("fk_favorite_user"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> favoriteService.addFavoriteForCurrentUser(10L));
+    }
+
+    @Test
+    void removeFavoriteForCurrentUser_ShouldOnlyCountActualDeletes() {
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.deleteByUserIdAndRecipeId(1L, 10L)).thenReturn(1).thenReturn(0);
+
+        assertTrue(favoriteService.removeFavoriteForCurrentUser(10L));
+        assertFalse(favoriteService.removeFavoriteForCurrentUser(10L));
+        verify(eventPublisher, times(1)).publishEvent(new FavoriteToggledEvent(10L, -1));
     }
 
     // ------------------- isAlreadyFavoriteForCurrentUser -------------------
     @Test
     void isAlreadyFavoriteForCurrentUser_ReturnsTrue() {
-        Users user = new Users();
-        user.setId(1L);
-
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(favoriteRepository.findByUserIdAndRecipeId(1L, 10L)).thenReturn(Optional.of(new Favorite()));
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.existsByUserIdAndRecipeId(1L, 10L)).thenReturn(true);
 
         assertTrue(favoriteService.isAlreadyFavoriteForCurrentUser(10L));
     }
 
     @Test
     void isAlreadyFavoriteForCurrentUser_ReturnsFalse() {
-        Users user = new Users();
-        user.setId(1L);
-
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(favoriteRepository.findByUserIdAndRecipeId(1L, 10L)).thenReturn(Optional.empty());
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.existsByUserIdAndRecipeId(1L, 10L)).thenReturn(false);
 
         assertFalse(favoriteService.isAlreadyFavoriteForCurrentUser(10L));
     }
 
+    @Test
+    void isAlreadyFavoriteForCurrentUser_WithUserPrincipal_ShouldNotQueryUsers() {
+        Users user = new Users("john@example.com", "john", "secret");
+        user.setId(3L);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(new UserPrincipal(user), null, List.of()));
+        when(favoriteRepository.existsByUserIdAndRecipeId(3L, 10L)).thenReturn(true);
+
+        assertTrue(favoriteService.isAlreadyFavoriteForCurrentUser(10L));
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void isAlreadyFavoriteForCurrentUser_NoAuthentication_ShouldThrow() {
         SecurityContextHolder.clearContext();
@@ -230,10 +298,37 @@ class FavoriteServiceTest {
         assertEquals("Utilisateur non authentifié", ex.getMessage());
     }
 
+    // ------------------- getFavoriteStatusForCurrentUser -------------------
+    @Test
+    void getFavoriteStatusForCurrentUser_ShouldFlagEveryRequestedRecipe() {
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(favoriteRepository.findFavoriteRecipeIds(eq(1L), anyCollection())).thenReturn(List.of(12L));
+
+        Map<Long, Boolean> status = favoriteService.getFavoriteStatusForCurrentUser(List.of(12L, 10L, 12L));
+
+        assertEquals(List.of(12L, 10L), List.copyOf(status.keySet()));
+        assertTrue(status.get(12L));
+        assertFalse(status.get(10L));
+        verify(favoriteRepository, times(1)).findFavoriteRecipeIds(eq(1L), anyCollection());
+    }
+
+    @Test
+    void getFavoriteStatusForCurrentUser_NoIds_ShouldNotQuery() {
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+
+        assertTrue(favoriteService.getFavoriteStatusForCurrentUser(List.of()).isEmpty());
+        verifyNoInteractions(favoriteRepository);
+    }
+
     // ------------------- removeFavorite -------------------
     @Test
     void removeFavorite_ShouldCallRepositoryDelete() {
         favoriteService.removeFavorite(1L, 10L);
         verify(favoriteRepository, times(1)).deleteByUserIdAndRecipeId(1L, 10L);
     }
-}
\ No newline at end of file
+
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("constraint violation", new SQLException(), constraint));
+    }
+}
@@ -0,0 +1,87 @@
+package com.gourmich.service;
+
+import com.gourmich.models.UserPrincipal;
+import com.gourmich.models.Users;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Compare le travail JWT fait par JwtFilter pour une requête authentifiée :
+// - legacy : extractUserName + validateToken (3 parses, clé et parser reconstruits à chaque fois)
+// - singleParse : une seule vérification sur le parser construit au démarrage
+// - cachedParse : parseClaims sur un token déjà vérifié (cas d'un client qui réutilise son token)
+//
+// Lancement : mvn test-compile puis
+//   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+//        com.gourmich.service.JWTServiceBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTServiceBenchmark {
+
+    private JWTService jwtService;
+    private String secret;
+    private String token;
+    private UserPrincipal principal;
+
+    @Setup
+    public void setUp() {
+        secret = Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+        jwtService = new JWTService();
+        jwtService.secretKey = secret;
+        jwtService.init();
+
+        Users user = new Users();
+        user.setUsername("benchmark");
+        principal = new UserPrincipal(user);
+        token = jwtService.generateToken(user.getUsername());
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyClaims().getSubject();
+        boolean valid = legacyClaims().getSubject().equals(principal.getUsername())
+                && !legacyClaims().getExpiration().before(new Date());
+        return username != null && valid;
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = jwtService.verify(token);
+        return claims.getSubject() != null && jwtService.validateToken(claims, principal);
+    }
+
+    @Benchmark
+    public boolean cachedParse() {
+        Claims claims = jwtService.parseClaims(token);
+        return claims.getSubject() != null && jwtService.validateToken(claims, principal);
+    }
+
+    // Reproduit l'ancien extractAllClaims : décodage du secret et nouveau parser à chaque appel
+    private Claims legacyClaims() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JWTServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -2,9 +2,13 @@ package com.gourmich.service;
 
 import com.gourmich.models.UserPrincipal;
 import com.gourmich.models.Users;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -84,6 +88,79 @@ class JWTServiceTest {
         assertTrue(jwtService.isTokenExpired(token));
     }
 
+    // ------------------- parseClaims -------------------
+    @Test
+    void parseClaims_ValidToken_ShouldReturnVerifiedClaims() {
+        String token = jwtService.generateToken(user.getUsername());
+
+        Claims claims = jwtService.parseClaims(token);
+
+        assertEquals(user.getUsername(), claims.getSubject());
+        assertTrue(claims.getExpiration().after(new Date()));
+    }
+
+    @Test
+    void parseClaims_TokenSignedWithAnotherKey_ShouldThrow() {
+        String foreignToken = Jwts.builder()
+                .subject(user.getUsername())
+                .signWith(Keys.secretKeyFor(SignatureAlgorithm.HS256))
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtService.parseClaims(foreignToken));
+    }
+
+    @Test
+    void validateClaims_OtherUser_ShouldReturnFalse() {
+        Claims claims = jwtService.parseClaims(jwtService.generateToken("someoneelse"));
+
+        assertFalse(jwtService.validateToken(claims, new UserPrincipal(user)));
+        assertTrue(jwtService.validateToken(jwtService.parseClaims(jwtService.generateToken(user.getUsername())),
+                new UserPrincipal(user)));
+    }
+
+    @Test
+    void parseClaims_SameToken_ShouldBeServedFromCache() {
+        JWTService service = new JWTService();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.meterRegistry = registry;
+        service.init();
+        String token = service.generateToken(user.getUsername());
+
+        Claims first = service.parseClaims(token);
+        Claims second = service.parseClaims(token);
+
+        assertSame(first, second);
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "security.jwt.verified").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void parseClaims_TamperedToken_ShouldBeRejectedEvenWhenOriginalIsCached() {
+        String token = jwtService.generateToken(user.getUsername());
+        jwtService.parseClaims(token);
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin\"}".getBytes());
+        String tampered = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertThrows(JwtException.class, () -> jwtService.parseClaims(tampered));
+    }
+
+    @Test
+    void parseClaims_CachedTokenPastExpiration_ShouldThrow() throws InterruptedException {
+        String token = Jwts.builder()
+                .subject(user.getUsername())
+                .expiration(new Date(System.currentTimeMillis() + 1000))
+                .signWith(jwtService.getKey())
+                .compact();
+        assertEquals(user.getUsername(), jwtService.parseClaims(token).getSubject());
+
+        Thread.sleep(1100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parseClaims(token));
+    }
+
     // ------------------- validateToken -------------------
     @Test
     void validateToken_ValidToken_ShouldReturnTrue() {
@@ -108,6 +185,18 @@ class JWTServiceTest {
         assertFalse(jwtService.validateToken(invalidToken, principal));
     }
 
+    @Test
+    void validateToken_TokenWithoutExpiration_ShouldReturnFalse() {
+        String token = Jwts.builder()
+                .subject(user.getUsername())
+                .signWith(jwtService.getKey())
+                .compact();
+
+        UserPrincipal principal = new UserPrincipal(user);
+        assertFalse(jwtService.validateToken(token, principal));
+        assertFalse(jwtService.validateToken(jwtService.parseClaims(token), principal));
+    }
+
     @Test
     void validateToken_ValidTokenAndMatchingUser_ShouldReturnTrue() {
         String token = jwtService.generateToken(user.getUsername());
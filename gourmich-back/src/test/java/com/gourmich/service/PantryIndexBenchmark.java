@@ -0,0 +1,58 @@
+package com.gourmich.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+// Temps d'une recherche "garde-manger" sur 50 000 recettes de 8 ingrédients tirés parmi 400.
+// Lancement : voir JWTServiceBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PantryIndexBenchmark {
+
+    private static final int RECIPES = 50_000;
+    private static final int VOCABULARY = 400;
+
+    private PantryIndex pantryIndex;
+    private List<String> pantry;
+
+    @Setup
+    public void setUp() {
+        pantryIndex = new PantryIndex(mock(com.gourmich.repo.IngredientRepository.class));
+        Random random = new Random(42);
+        for (long id = 1; id <= RECIPES; id++) {
+            List<String> ingredients = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                ingredients.add("ingredient" + random.nextInt(VOCABULARY));
+            }
+            pantryIndex.index(id, ingredients);
+        }
+        pantry = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            pantry.add("ingredient" + random.nextInt(VOCABULARY));
+        }
+    }
+
+    @Benchmark
+    public List<PantryIndex.Match> match() {
+        return pantryIndex.match(pantry, 2, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PantryIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
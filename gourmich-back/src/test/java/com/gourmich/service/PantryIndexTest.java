@@ -0,0 +1,153 @@
+package com.gourmich.service;
+
+import com.gourmich.event.RecipeChangedEvent;
+import com.gourmich.repo.IngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PantryIndexTest {
+
+    private IngredientRepository ingredientRepository;
+    private PantryIndex pantryIndex;
+
+    @BeforeEach
+    void setUp() {
+        ingredientRepository = mock(IngredientRepository.class);
+        pantryIndex = new PantryIndex(ingredientRepository);
+
+        pantryIndex.index(1L, List.of("Pommes", "Farine", "Beurre", "Sucre"));
+        pantryIndex.index(2L, List.of("Pommes de terre", "Crème", "Ail"));
+        pantryIndex.index(3L, List.of("Œufs", "Farine", "Lait"));
+    }
+
+    @Test
+    void match_ShouldRankByMissingIngredients() {
+        List<PantryIndex.Match> matches = pantryIndex.match(List.of("oeuf", "farine", "lait", "beurre"), 2, 10);
+
+        assertEquals(List.of(3L, 1L), matches.stream().map(PantryIndex.Match::recipeId).toList());
+        assertEquals(0, matches.get(0).missing());
+        assertEquals(3, matches.get(0).matched());
+        assertEquals(2, matches.get(1).missing());
+    }
+
+    @Test
+    void match_ShouldExcludeRecipesMissingTooManyIngredients() {
+        List<PantryIndex.Match> matches = pantryIndex.match(List.of("farine"), 2, 10);
+
+        assertEquals(List.of(3L), matches.stream().map(PantryIndex.Match::recipeId).toList());
+    }
+
+    @Test
+    void match_MultiWordIngredient_ShouldRequireAllItsTokens() {
+        // "pommes" ne suffit pas à couvrir "pommes de terre"
+        assertTrue(pantryIndex.match(List.of("pommes", "creme", "ail"), 0, 10).isEmpty());
+
+        List<PantryIndex.Match> matches = pantryIndex.match(List.of("Pomme de terre", "crème", "AIL"), 0, 10);
+        assertEquals(List.of(2L), matches.stream().map(PantryIndex.Match::recipeId).toList());
+    }
+
+    @Test
+    void match_RepeatedOnTheSameThread_ShouldStartFromZeroCounts() {
+        List<PantryIndex.Match> first = pantryIndex.match(List.of("oeuf", "farine", "lait", "beurre"), 2, 10);
+        // le limit à 1 écarte des candidats déjà comptés : leurs compteurs doivent être remis à zéro aussi
+        pantryIndex.match(List.of("farine", "beurre", "sucre"), 4, 1);
+
+        assertEquals(first, pantryIndex.match(List.of("oeuf", "farine", "lait", "beurre"), 2, 10));
+    }
+
+    @Test
+    void match_ShouldRespectLimit() {
+        List<PantryIndex.Match> matches = pantryIndex.match(
+                List.of("pommes", "farine", "beurre", "sucre", "oeufs", "lait"), 5, 1);
+
+        assertEquals(1, matches.size());
+        assertEquals(0, matches.get(0).missing());
+    }
+
+    @Test
+    void index_ShouldReplacePreviousIngredients() {
+        pantryIndex.index(3L, List.of("Chocolat"));
+
+        assertTrue(pantryIndex.match(List.of("oeufs", "lait"), 1, 10).isEmpty());
+        assertEquals(List.of(3L), pantryIndex.match(List.of("chocolat"), 0, 10).stream()
+                .map(PantryIndex.Match::recipeId).toList());
+    }
+
+    @Test
+    void remove_ShouldDropRecipeAndReuseItsSlot() {
+        pantryIndex.remove(1L);
+        assertTrue(pantryIndex.match(List.of("sucre", "beurre"), 2, 10).isEmpty());
+
+        pantryIndex.index(4L, List.of("Sucre"));
+        assertEquals(List.of(4L), pantryIndex.match(List.of("sucre"), 0, 10).stream()
+                .map(PantryIndex.Match::recipeId).toList());
+    }
+
+    @Test
+    void onRecipeChanged_ShouldReloadIngredientsOfThatRecipe() {
+        when(ingredientRepository.findNamesByRecipeId(5L)).thenReturn(List.of("Riz", "Safran"));
+
+        pantryIndex.onRecipeChanged(new RecipeChangedEvent(5L));
+
+        assertEquals(List.of(5L), pantryIndex.match(List.of("riz", "safran"), 0, 10).stream()
+                .map(PantryIndex.Match::recipeId).toList());
+    }
+
+    @Test
+    void onRecipeChanged_DeletedRecipe_ShouldBeRemoved() {
+        when(ingredientRepository.findNamesByRecipeId(3L)).thenReturn(List.of());
+
+        pantryIndex.onRecipeChanged(new RecipeChangedEvent(3L));
+
+        assertTrue(pantryIndex.match(List.of("oeufs", "farine", "lait"), 0, 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldLoadEveryIngredientFromRepository() {
+        when(ingredientRepository.findAllRecipeIdsAndNames()).thenReturn(List.of(
+                new Object[]{10L, "Tomates"},
+                new Object[]{10L, "Basilic"},
+                new Object[]{11L, "Tomate"}
+        ));
+
+        pantryIndex.rebuild();
+
+        assertEquals(List.of(11L, 10L), pantryIndex.match(List.of("tomate"), 1, 10).stream()
+                .map(PantryIndex.Match::recipeId).toList());
+        assertTrue(pantryIndex.match(List.of("farine"), 5, 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_RecipeChangedDuringTheRead_ShouldSurviveTheSwap() {
+        when(ingredientRepository.findNamesByRecipeId(12L)).thenReturn(List.of("Chocolat"));
+        when(ingredientRepository.findAllRecipeIdsAndNames()).thenAnswer(i -> {
+            // recette validée après la lecture de la base, réindexée par son événement avant l'échange
+            pantryIndex.onRecipeChanged(new RecipeChangedEvent(12L));
+            return List.<Object[]>of(new Object[]{10L, "Tomates"});
+        });
+
+        pantryIndex.rebuild();
+
+        assertEquals(List.of(12L), pantryIndex.match(List.of("chocolat"), 0, 10).stream()
+                .map(PantryIndex.Match::recipeId).toList());
+        assertEquals(List.of(10L), pantryIndex.match(List.of("tomate"), 0, 10).stream()
+                .map(PantryIndex.Match::recipeId).toList());
+    }
+
+    @Test
+    void lifecycle_ShouldBuildBeforeTheWebServerStarts() {
+        when(ingredientRepository.findAllRecipeIdsAndNames()).thenReturn(List.<Object[]>of(new Object[]{10L, "Tomates"}));
+        assertTrue(pantryIndex.getPhase() < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+
+        pantryIndex.start();
+
+        assertTrue(pantryIndex.isRunning());
+        assertEquals(1, pantryIndex.match(List.of("tomate"), 0, 10).size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.gourmich.service;
+
+import com.gourmich.event.UserChangedEvent;
+import com.gourmich.models.UserPrincipal;
+import com.gourmich.models.Users;
+import com.gourmich.repo.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PrincipalCacheTest {
+
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        principalCache = new PrincipalCache(100, Duration.ofMinutes(1), userRepository, meterRegistry);
+
+        Users user = new Users();
+        user.setId(1L);
+        user.setUsername("john");
+        user.setPassword("secret");
+        when(userRepository.findByUsername("john")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void get_ShouldHitDatabaseOnlyOnce() {
+        UserPrincipal first = principalCache.get("john");
+        UserPrincipal second = principalCache.get("john");
+
+        assertEquals("john", first.getUsername());
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("john");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "security.principals").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void get_UnknownUser_ShouldThrowAndNotBeCached() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> principalCache.get("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> principalCache.get("ghost"));
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+
+    @Test
+    void onUserChanged_ShouldReloadPrincipal() {
+        principalCache.get("john");
+
+        principalCache.onUserChanged(new UserChangedEvent("john"));
+        principalCache.get("john");
+
+        verify(userRepository, times(2)).findByUsername("john");
+    }
+
+    @Test
+    void invalidateAll_ShouldReloadPrincipal() {
+        principalCache.get("john");
+
+        principalCache.invalidateAll();
+        principalCache.get("john");
+
+        verify(userRepository, times(2)).findByUsername("john");
+    }
+}
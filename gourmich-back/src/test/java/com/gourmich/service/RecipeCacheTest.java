@@ -0,0 +1,173 @@
+package com.gourmich.service;
+
+import com.gourmich.dto.RecipeDTO;
+import com.gourmich.event.FavoriteCountsFlushedEvent;
+import com.gourmich.event.RecipeCatalogReloadedEvent;
+import com.gourmich.event.RecipeChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecipeCache recipeCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recipeCache = new RecipeCache(100, Duration.ofMinutes(10), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getDetail_ShouldLoadOnceThenServeFromCache() {
+        recipeCache.getDetail(1L, this::load);
+        Optional<RecipeDTO> second = recipeCache.getDetail(1L, this::load);
+
+        assertTrue(second.isPresent());
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "recipes.detail").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "recipes.detail").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void getDetail_MissingRecipe_ShouldNotBeCached() {
+        assertTrue(recipeCache.getDetail(1L, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+        assertTrue(recipeCache.getDetail(1L, id -> { loads.incrementAndGet(); return Optional.empty(); }).isEmpty());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onRecipeChanged_ShouldEvictDetailAndLatest() {
+        recipeCache.getDetail(1L, this::load);
+        recipeCache.getLatest(3, n -> { loads.incrementAndGet(); return List.of(); });
+
+        recipeCache.onRecipeChanged(new RecipeChangedEvent(1L));
+
+        recipeCache.getDetail(1L, this::load);
+        recipeCache.getLatest(3, n -> { loads.incrementAndGet(); return List.of(); });
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void onRecipeChanged_ShouldKeepOtherDetails() {
+        recipeCache.getDetail(1L, this::load);
+        recipeCache.getDetail(2L, this::load);
+
+        recipeCache.onRecipeChanged(new RecipeChangedEvent(1L));
+        recipeCache.getDetail(2L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onFavoriteCountsFlushed_ShouldEvictOnlyEntriesShowingAFlushedRecipe() {
+        recipeCache.getDetail(1L, this::load);
+        recipeCache.getDetail(2L, this::load);
+        recipeCache.getLatest(1, n -> List.of(load(2L).orElseThrow()));
+        recipeCache.getLatest(2, n -> List.of(load(1L).orElseThrow(), load(2L).orElseThrow()));
+        loads.set(0);
+
+        recipeCache.onFavoriteCountsFlushed(new FavoriteCountsFlushedEvent(Set.of(1L)));
+
+        assertTrue(recipeCache.peekDetail(1L).isEmpty());
+        assertTrue(recipeCache.peekDetail(2L).isPresent());
+        assertTrue(recipeCache.peekLatest(1).isPresent());
+        assertTrue(recipeCache.peekLatest(2).isEmpty());
+    }
+
+    @Test
+    void onFavoriteCountsFlushed_WhileLoading_ShouldNotKeepTheStaleList() {
+        recipeCache.getLatest(1, n -> List.of(load(2L).orElseThrow()));
+        // le flush de la recette 1 est validé pendant la lecture en base de la liste qui la contient
+        recipeCache.getLatest(2, n -> {
+            recipeCache.onFavoriteCountsFlushed(new FavoriteCountsFlushedEvent(Set.of(1L)));
+            return List.of(load(1L).orElseThrow(), load(2L).orElseThrow());
+        });
+
+        assertTrue(recipeCache.peekLatest(1).isPresent());
+        assertTrue(recipeCache.peekLatest(2).isEmpty());
+    }
+
+    @Test
+    void onFavoriteCountsFlushed_ShouldNotReviveAListIgnoredSinceAnInvalidation() {
+        recipeCache.getLatest(3, n -> {
+            recipeCache.onRecipeChanged(new RecipeChangedEvent(2L));
+            return List.of(load(1L).orElseThrow());
+        });
+
+        recipeCache.onFavoriteCountsFlushed(new FavoriteCountsFlushedEvent(Set.of(5L)));
+
+        assertTrue(recipeCache.peekLatest(3).isEmpty());
+    }
+
+    @Test
+    void getDetail_ShouldServeCopiesOfTheCachedRecipe() {
+        RecipeDTO served = recipeCache.getDetail(1L, this::load).orElseThrow();
+        served.setTitle("modifié");
+        recipeCache.getLatest(3, n -> List.of(load(1L).orElseThrow())).get(0).setTitle("modifié");
+
+        assertNull(recipeCache.getDetail(1L, this::load).orElseThrow().getTitle());
+        assertNull(recipeCache.getLatest(3, n -> List.of()).get(0).getTitle());
+    }
+
+    @Test
+    void onCatalogReloaded_ShouldEvictEverything() {
+        recipeCache.getDetail(1L, this::load);
+        recipeCache.getLatest(3, n -> List.of(load(1L).orElseThrow()));
+
+        recipeCache.onCatalogReloaded(new RecipeCatalogReloadedEvent());
+
+        assertTrue(recipeCache.peekDetail(1L).isEmpty());
+        assertTrue(recipeCache.peekLatest(3).isEmpty());
+    }
+
+    @Test
+    void getLatest_InvalidatedWhileLoading_ShouldNotKeepTheStaleList() {
+        List<RecipeDTO> stale = List.of(load(1L).orElseThrow());
+        // la recette 2 est validée pendant la lecture en base : invalidateAll ne voit pas le chargement en cours
+        List<RecipeDTO> served = recipeCache.getLatest(3, n -> {
+            recipeCache.onRecipeChanged(new RecipeChangedEvent(2L));
+            return stale;
+        });
+
+        assertEquals(stale, served);
+        assertTrue(recipeCache.peekLatest(3).isEmpty());
+
+        List<RecipeDTO> fresh = List.of(load(2L).orElseThrow(), load(1L).orElseThrow());
+        assertEquals(fresh, recipeCache.getLatest(3, n -> fresh));
+        assertEquals(fresh, recipeCache.getLatest(3, n -> stale));
+        assertEquals(Optional.of(fresh), recipeCache.peekLatest(3));
+    }
+
+    @Test
+    void getDetail_CatalogReloadedWhileLoading_ShouldNotKeepTheStaleDetail() {
+        RecipeDTO stale = load(1L).orElseThrow();
+        recipeCache.getDetail(1L, id -> {
+            recipeCache.onCatalogReloaded(new RecipeCatalogReloadedEvent());
+            return Optional.of(stale);
+        });
+
+        assertTrue(recipeCache.peekDetail(1L).isEmpty());
+        RecipeDTO fresh = load(1L).orElseThrow();
+        assertEquals(fresh, recipeCache.getDetail(1L, id -> Optional.of(fresh)).orElseThrow());
+    }
+
+    private Optional<RecipeDTO> load(Long id) {
+        loads.incrementAndGet();
+        RecipeDTO dto = new RecipeDTO();
+        dto.setId(id);
+        return Optional.of(dto);
+    }
+}
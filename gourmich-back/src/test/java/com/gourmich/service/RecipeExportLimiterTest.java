@@ -0,0 +1,63 @@
+package com.gourmich.service;
+
+import com.gourmich.exception.ServerBusyException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeExportLimiterTest {
+
+    @Test
+    void acquire_BeyondMaxConcurrent_ShouldThrowUntilReleased() {
+        RecipeExportLimiter limiter = new RecipeExportLimiter(2);
+
+        RecipeExportLimiter.Permit permit = limiter.acquire();
+        limiter.acquire();
+        assertThrows(ServerBusyException.class, limiter::acquire);
+
+        permit.release();
+        assertDoesNotThrow(limiter::acquire);
+    }
+
+    @Test
+    void release_CalledTwice_ShouldGiveBackOnePermitOnly() {
+        RecipeExportLimiter limiter = new RecipeExportLimiter(2);
+        RecipeExportLimiter.Permit permit = limiter.acquire();
+
+        permit.release();
+        permit.release();
+
+        limiter.acquire();
+        limiter.acquire();
+        assertThrows(ServerBusyException.class, limiter::acquire);
+    }
+
+    @Test
+    void releaseIfNotStarted_AfterStart_ShouldKeepThePermitUntilTheStreamEnds() {
+        RecipeExportLimiter limiter = new RecipeExportLimiter(1);
+        RecipeExportLimiter.Permit permit = limiter.acquire();
+
+        assertTrue(permit.start());
+        permit.releaseIfNotStarted();
+        assertThrows(ServerBusyException.class, limiter::acquire);
+
+        permit.release();
+        assertDoesNotThrow(limiter::acquire);
+    }
+
+    @Test
+    void releaseIfNotStarted_BeforeStart_ShouldReleaseAndPreventTheStream() {
+        RecipeExportLimiter limiter = new RecipeExportLimiter(1);
+        RecipeExportLimiter.Permit permit = limiter.acquire();
+
+        permit.releaseIfNotStarted();
+
+        assertFalse(permit.start());
+        assertDoesNotThrow(limiter::acquire);
+    }
+
+    @Test
+    void constructor_NoPermit_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new RecipeExportLimiter(0));
+    }
+}
@@ -0,0 +1,88 @@
+package com.gourmich.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.repo.RecipeIngredientRow;
+import com.gourmich.repo.RecipeRepository;
+import org.junit.jupiter.api.*;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecipeExportServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private RecipeExportService recipeExportService;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    void exportRecipes_ShouldWriteOneLinePerRecipeWithItsIngredients() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(recipeRepository.streamAllRows()).thenReturn(Stream.of(
+                row(1L, "Ratatouille", "Courgette", 2.0, "pcs"),
+                row(1L, "Ratatouille", "Tomato", 4.0, "pcs"),
+                row(2L, "Water", null, null, null),
+                row(3L, "Tiramisu", "Mascarpone", 250.0, "g")
+        ).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = recipeExportService.exportRecipes(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, written);
+        assertEquals(3, lines.length);
+
+        JsonNode ratatouille = objectMapper.readTree(lines[0]);
+        assertEquals("Ratatouille", ratatouille.get("title").asText());
+        assertEquals("Main Course", ratatouille.get("category").asText());
+        assertEquals(2, ratatouille.get("ingredients").size());
+        assertEquals("Tomato", ratatouille.get("ingredients").get(1).get("name").asText());
+        assertEquals(0, objectMapper.readTree(lines[1]).get("ingredients").size());
+        assertEquals(3L, objectMapper.readTree(lines[2]).get("id").asLong());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void exportRecipes_EmptyCatalog_ShouldWriteNothing() throws IOException {
+        when(recipeRepository.streamAllRows()).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, recipeExportService.exportRecipes(out));
+        assertEquals(0, out.size());
+    }
+
+    private static RecipeIngredientRow row(Long id, String title, String ingredient, Double quantity, String unit) {
+        return new RecipeIngredientRow(id, title, null, null, RecipeCategory.MAIN_COURSE, 2, 30L, "Cook", "chef",
+                0L, LocalDateTime.of(2025, 1, 10, 12, 0), 3L, ingredient, quantity, unit);
+    }
+}
@@ -0,0 +1,245 @@
+package com.gourmich.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gourmich.dto.RecipeImportRejectDTO;
+import com.gourmich.dto.RecipeImportReportDTO;
+import com.gourmich.event.RecipesImportedEvent;
+import com.gourmich.models.Recipe;
+import com.gourmich.models.RecipeCategory;
+import com.gourmich.models.Users;
+import com.gourmich.repo.RecipeRepository;
+import com.gourmich.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecipeImportServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private RecipeImportService recipeImportService;
+
+    private AutoCloseable mocks;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+
+        Users partner = new Users("partner@example.com", "partner", "secret");
+        partner.setId(7L);
+        when(userRepository.findByUsername("partner")).thenReturn(Optional.of(partner));
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(recipeRepository.saveAll(anyList())).thenAnswer(i -> {
+            List<Recipe> recipes = i.getArgument(0);
+            recipes.forEach(recipe -> recipe.setId(ids.incrementAndGet()));
+            return recipes;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    void importRecipes_Ndjson_ShouldImportEveryValidRecord() throws IOException {
+        RecipeImportReportDTO report = importText(
+                record("Ratatouille", "Main Course") + "\n" + record("Tiramisu", "DESSERT") + "\n");
+
+        assertEquals(2, report.getReceived());
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getRejected());
+
+        ArgumentCaptor<List<Recipe>> saved = recipesCaptor();
+        verify(recipeRepository).saveAll(saved.capture());
+        Recipe tiramisu = saved.getValue().get(1);
+        assertEquals(RecipeCategory.DESSERT, tiramisu.getCategory());
+        assertEquals("partner", tiramisu.getAuthor().getUsername());
+        assertSame(tiramisu, tiramisu.getIngredients().get(0).getRecipe());
+    }
+
+    @Test
+    void importRecipes_JsonArray_ShouldImportEveryValidRecord() throws IOException {
+        RecipeImportReportDTO report = importText(
+                "[" + record("Ratatouille", "Main Course") + ",\n" + record("Tiramisu", "Dessert") + "]");
+
+        assertEquals(2, report.getImported());
+        verify(eventPublisher).publishEvent(any(RecipesImportedEvent.class));
+    }
+
+    @Test
+    void importRecipes_InvalidRecords_ShouldBeRejectedOneByOne() throws IOException {
+        RecipeImportReportDTO report = importText(String.join("\n",
+                record("Ratatouille", "Main Course"),
+                record("Pizza", "Brunch"),
+                record("Bad", "Dessert"),
+                "{\"title\": \"Crêpes\", \"category\": \"Dessert\", \"difficulty\": \"hard\"}",
+                "42",
+                record("Ratatouille", "Side Dish")));
+
+        assertEquals(6, report.getReceived());
+        assertEquals(1, report.getImported());
+        assertEquals(5, report.getRejected());
+        List<RecipeImportRejectDTO> rejects = report.getRejects();
+        assertEquals(List.of(2, 3, 4, 5, 6), rejects.stream().map(RecipeImportRejectDTO::getRecord).toList());
+        assertEquals("Unknown category: Brunch", rejects.get(0).getReason());
+        assertEquals("Title must be between 4 and 100 characters long.", rejects.get(1).getReason());
+        assertTrue(rejects.get(2).getReason().startsWith("Invalid record"));
+        assertEquals("Record is not a JSON object", rejects.get(3).getReason());
+        assertTrue(rejects.get(4).getReason().startsWith("Duplicate title in this import"));
+    }
+
+    @Test
+    void importRecipes_ExistingTitles_ShouldBeCheckedOncePerChunk() throws IOException {
+        recipeImportService.chunkSize = 2;
+        when(recipeRepository.findTitlesByAuthorIdAndTitleIn(eq(7L), anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of("Tiramisu"))
+                .thenReturn(List.of());
+
+        RecipeImportReportDTO report = importText(String.join("\n",
+                record("Ratatouille", "Main Course"), record("Gazpacho", "Starter"),
+                record("Tiramisu", "Dessert"), record("Brownie", "Dessert"),
+                record("Lemonade", "Drink")));
+
+        assertEquals(4, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(3, report.getRejects().get(0).getRecord());
+        verify(recipeRepository, times(3)).findTitlesByAuthorIdAndTitleIn(eq(7L), anyCollection());
+        verify(recipeRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void importRecipes_SeveralChunks_ShouldClearThePersistenceContextAfterEachOne() throws IOException {
+        recipeImportService.chunkSize = 2;
+        // contexte de persistance simulé : saveAll y attache les recettes, clear() le vide
+        List<Recipe> managed = new ArrayList<>();
+        List<Integer> managedBeforeEachChunk = new ArrayList<>();
+        when(recipeRepository.saveAll(anyList())).thenAnswer(i -> {
+            List<Recipe> recipes = i.getArgument(0);
+            managedBeforeEachChunk.add(managed.size());
+            recipes.forEach(recipe -> recipe.setId(ids.incrementAndGet()));
+            managed.addAll(recipes);
+            return recipes;
+        });
+        doAnswer(i -> {
+            managed.clear();
+            return null;
+        }).when(entityManager).clear();
+
+        RecipeImportReportDTO report = importText(String.join("\n",
+                record("Ratatouille", "Main Course"), record("Gazpacho", "Starter"),
+                record("Tiramisu", "Dessert"), record("Brownie", "Dessert"),
+                record("Lemonade", "Drink")));
+
+        assertEquals(5, report.getImported());
+        assertEquals(List.of(0, 0, 0), managedBeforeEachChunk);
+        assertTrue(managed.isEmpty());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void importRecipes_MalformedJson_ShouldKeepRecordsReadBefore() throws IOException {
+        RecipeImportReportDTO report = importText(record("Ratatouille", "Main Course") + "\n{\"title\": ");
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(2, report.getRejects().get(0).getRecord());
+        assertTrue(report.getRejects().get(0).getReason().startsWith("Malformed JSON at line 2"));
+    }
+
+    @Test
+    void importRecipes_FailedChunk_ShouldRejectItsRecords() throws IOException {
+        when(recipeRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("boom"));
+
+        RecipeImportReportDTO report = importText(record("Ratatouille", "Main Course"));
+
+        assertEquals(0, report.getImported());
+        assertEquals(1, report.getRejected());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void importRecipes_TooManyRejects_ShouldCapTheList() throws IOException {
+        recipeImportService.maxReportedRejects = 2;
+
+        RecipeImportReportDTO report = importText(record("Ratatouille", "Main Course") + "\n1\n2\n3\n4");
+
+        assertEquals(1, report.getImported());
+        assertEquals(4, report.getRejected());
+        assertEquals(2, report.getRejects().size());
+    }
+
+    @Test
+    void importRecipes_NotJsonObjects_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> importText("\"recipes\""));
+        assertThrows(IllegalArgumentException.class, () -> importText("not json"));
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void importRecipes_UnknownUser_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> recipeImportService.importRecipes(
+                new ByteArrayInputStream(new byte[0]), "ghost"));
+    }
+
+    // ------------------- Tools -------------------
+
+    private RecipeImportReportDTO importText(String text) throws IOException {
+        return recipeImportService.importRecipes(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), "partner");
+    }
+
+    private static String record(String title, String category) {
+        return "{\"title\": \"" + title + "\", \"category\": \"" + category + "\", \"difficulty\": 2, "
+                + "\"cookingTime\": 30, \"instructions\": \"Cook\", "
+                + "\"ingredients\": [{\"name\": \"Salt\", \"quantity\": 1, \"unit\": \"g\"}]}";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Recipe>> recipesCaptor() {
+        return ArgumentCaptor.forClass((Class<List<Recipe>>) (Class<?>) ArrayList.class);
+    }
+}
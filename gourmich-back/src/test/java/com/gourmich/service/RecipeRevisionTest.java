@@ -0,0 +1,111 @@
+package com.gourmich.service;
+
+import com.gourmich.dto.RecipeDTO;
+import com.gourmich.models.Recipe;
+import com.gourmich.repo.CatalogRevisionRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeRevisionTest {
+
+    @Test
+    void of_ShouldChangeWithVersionAndOrder() {
+        RecipeDTO a = recipe(1L, 0L, LocalDateTime.of(2025, 1, 10, 12, 0));
+        RecipeDTO b = recipe(2L, 0L, LocalDateTime.of(2025, 1, 11, 12, 0));
+
+        RecipeRevision base = RecipeRevision.of(List.of(a, b));
+
+        assertEquals(base, RecipeRevision.of(List.of(recipe(1L, 0L, a.getUpdatedAt()), recipe(2L, 0L, b.getUpdatedAt()))));
+        assertNotEquals(base.eTag(), RecipeRevision.of(List.of(b, a)).eTag());
+        assertNotEquals(base.eTag(), RecipeRevision.of(List.of(a, recipe(2L, 1L, b.getUpdatedAt()))).eTag());
+        assertTrue(base.eTag().startsWith("\"") && base.eTag().endsWith("\""));
+    }
+
+    @Test
+    void of_ShouldUseMostRecentUpdateAsLastModified() {
+        LocalDateTime latest = LocalDateTime.of(2025, 1, 11, 12, 0);
+        RecipeRevision revision = RecipeRevision.of(List.of(
+                recipe(1L, 0L, latest.minusDays(1)), recipe(2L, 0L, latest), recipe(3L, 0L, null)));
+
+        assertEquals(latest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), revision.lastModified());
+        assertEquals(-1, RecipeRevision.of(List.of()).lastModified());
+    }
+
+    @Test
+    void of_Catalog_ShouldChangeWithEveryKindOfWrite() {
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 11, 12, 0);
+        RecipeRevision base = RecipeRevision.of(catalog(3L, 9L, updatedAt, 4L, 10L));
+
+        assertEquals(base, RecipeRevision.of(catalog(3L, 9L, updatedAt, 4L, 10L)));
+        // suppression d'une recette jamais modifiée puis création : seul le plus grand id bouge
+        assertNotEquals(base.eTag(), RecipeRevision.of(catalog(3L, 10L, updatedAt, 4L, 10L)).eTag());
+        assertNotEquals(base.eTag(), RecipeRevision.of(catalog(3L, 9L, updatedAt, 5L, 10L)).eTag());
+        assertNotEquals(base.eTag(), RecipeRevision.of(catalog(3L, 9L, updatedAt, 4L, 11L)).eTag());
+        assertEquals(updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), base.lastModified());
+        assertEquals(-1, RecipeRevision.of(catalog(0L, null, null, null, null)).lastModified());
+    }
+
+    @Test
+    void of_Entity_ShouldMatchTheDtoServedByReads() {
+        Recipe entity = new Recipe();
+        entity.setId(7L);
+        entity.setVersion(3L);
+        entity.setUpdatedAt(LocalDateTime.of(2025, 1, 10, 12, 0));
+        entity.setFavoriteCount(5L);
+        RecipeDTO dto = recipe(7L, 3L, entity.getUpdatedAt());
+        dto.setFavoriteCount(5L);
+
+        assertEquals(RecipeRevision.of(List.of(dto)), RecipeRevision.of(entity));
+    }
+
+    @Test
+    void of_FavoriteCountChange_ShouldChangeETagButStillMatchIfMatch() {
+        RecipeDTO before = recipe(1L, 2L, null);
+        before.setFavoriteCount(3L);
+        RecipeDTO after = recipe(1L, 2L, null);
+        after.setFavoriteCount(4L);
+        RecipeDTO edited = recipe(1L, 3L, null);
+        edited.setFavoriteCount(3L);
+
+        RecipeRevision read = RecipeRevision.of(List.of(before));
+
+        assertNotEquals(read.eTag(), RecipeRevision.of(List.of(after)).eTag());
+        assertTrue(RecipeRevision.of(List.of(after)).matches(read.eTag()));
+        assertFalse(RecipeRevision.of(List.of(edited)).matches(read.eTag()));
+    }
+
+    @Test
+    void matches_ShouldUseStrongComparison() {
+        RecipeRevision revision = RecipeRevision.of(List.of(recipe(1L, 0L, null)));
+
+        assertTrue(revision.matches(revision.eTag()));
+        assertTrue(revision.matches("\"other\" , " + revision.eTag()));
+        assertTrue(revision.matches("*"));
+        assertFalse(revision.matches("W/" + revision.eTag()));
+        assertFalse(revision.matches("\"other\""));
+    }
+
+    private static RecipeDTO recipe(Long id, Long version, LocalDateTime updatedAt) {
+        RecipeDTO dto = new RecipeDTO();
+        dto.setId(id);
+        dto.setVersion(version);
+        dto.setUpdatedAt(updatedAt);
+        return dto;
+    }
+
+    private static CatalogRevisionRow catalog(Long count, Long maxId, LocalDateTime maxUpdatedAt, Long versionSum,
+                                              Long favoriteCountSum) {
+        return new CatalogRevisionRow() {
+            public Long getRecipeCount() { return count; }
+            public Long getMaxId() { return maxId; }
+            public LocalDateTime getMaxUpdatedAt() { return maxUpdatedAt; }
+            public Long getVersionSum() { return versionSum; }
+            public Long getFavoriteCountSum() { return favoriteCountSum; }
+        };
+    }
+}
@@ -2,6 +2,10 @@ package com.gourmich.service;
 
 import com.gourmich.dto.IngredientDTO;
 import com.gourmich.dto.RecipeDTO;
+import com.gourmich.dto.RecipeFilter;
+import com.gourmich.dto.RecipePageDTO;
+import com.gourmich.dto.RecipeSort;
+import com.gourmich.dto.RecipeSummaryDTO;
 import com.gourmich.dto.UpdateRecipeDTO;
 import com.gourmich.models.Ingredient;
 import com.gourmich.models.Recipe;
@@ -13,6 +17,7 @@ import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.annotation.DirtiesContext;
@@ -46,6 +51,9 @@ class RecipeServiceIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Users author;
 
     @BeforeEach
@@ -124,6 +132,37 @@ class RecipeServiceIT {
         assertEquals("Salt", updated.getIngredients().get(0).getName());
     }
 
+    @Test
+    void updateRecipe_ReorderedIngredients_ShouldBeReadBackInTheNewOrder() {
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Salad");
+        recipe.setCategory(RecipeCategory.STARTER);
+        recipe.setDifficulty(1);
+        recipe.setAuthor(author);
+        recipe.setIngredients(new ArrayList<>());
+        recipeRepository.save(recipe);
+        RecipeDTO original = new RecipeDTO();
+        original.setTitle("Salad");
+        original.setCategory(RecipeCategory.STARTER);
+        original.setDifficulty(1);
+        original.setIngredients(List.of(new IngredientDTO("Lettuce", 1.0, "pc"), new IngredientDTO("Tomato", 2.0, "pc")));
+        recipeService.updateRecipe(recipe.getId(), original);
+
+        // les lignes existantes gardent leur id : seul sort_order porte le nouvel ordre
+        RecipeDTO reordered = new RecipeDTO();
+        reordered.setTitle("Salad");
+        reordered.setCategory(RecipeCategory.STARTER);
+        reordered.setDifficulty(1);
+        reordered.setIngredients(List.of(new IngredientDTO("Olive oil", 1.0, "tbsp"),
+                new IngredientDTO("Lettuce", 1.0, "pc"), new IngredientDTO("Tomato", 2.0, "pc")));
+        UpdateRecipeDTO updated = recipeService.updateRecipe(recipe.getId(), reordered);
+
+        List<String> expected = List.of("Olive oil", "Lettuce", "Tomato");
+        assertEquals(expected, updated.getIngredients().stream().map(IngredientDTO::getName).toList());
+        assertEquals(expected, recipeService.getRecipeDtoById(recipe.getId()).orElseThrow()
+                .getIngredients().stream().map(IngredientDTO::getName).toList());
+    }
+
     @Test
     void deleteRecipe_Authorized_ShouldDelete() {
         Recipe recipe = new Recipe();
@@ -160,7 +199,31 @@ class RecipeServiceIT {
         r2.getIngredients().add(new Ingredient("Pepper", 2.0, "g", r2));
         recipeRepository.save(r2);
 
-        List<Recipe> latest = recipeService.getLatestRecipes(2);
+        List<RecipeDTO> latest = recipeService.getLatestRecipes(2);
         assertEquals(2, latest.size());
+        assertEquals("Dish2", latest.get(0).getTitle());
+        assertEquals("Pepper", latest.get(0).getIngredients().get(0).getName());
+    }
+
+    @Test
+    void getRecipePage_Popular_ShouldOrderByFavoriteCountThenId() {
+        List<Long> ids = new ArrayList<>();
+        for (String title : List.of("Soup", "Cake", "Stew")) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle(title);
+            recipe.setCategory(RecipeCategory.MAIN_COURSE);
+            recipe.setDifficulty(1);
+            recipe.setAuthor(author);
+            ids.add(recipeRepository.saveAndFlush(recipe).getId());
+        }
+        jdbcTemplate.update("UPDATE recipes SET favorite_count = 5 WHERE id IN (?, ?)", ids.get(0), ids.get(2));
+
+        RecipePageDTO first = recipeService.getRecipePage(RecipeFilter.NONE, RecipeSort.POPULAR, null, 2, false);
+        RecipePageDTO second = recipeService.getRecipePage(RecipeFilter.NONE, RecipeSort.POPULAR, first.getNext(), 2, false);
+
+        assertEquals(List.of("Stew", "Soup"), first.getItems().stream().map(RecipeSummaryDTO::getTitle).toList());
+        assertEquals(5L, first.getItems().get(0).getFavoriteCount());
+        assertEquals(List.of("Cake"), second.getItems().stream().map(RecipeSummaryDTO::getTitle).toList());
+        assertNull(second.getNext());
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,17 @@
 package com.gourmich.service;
 
+import com.gourmich.config.DatabaseVendor;
 import com.gourmich.dto.IngredientDTO;
+import com.gourmich.dto.PantryMatchDTO;
 import com.gourmich.dto.RecipeDTO;
+import com.gourmich.dto.RecipeFilter;
+import com.gourmich.dto.RecipePageDTO;
+import com.gourmich.dto.RecipeSort;
+import com.gourmich.dto.RecipeSummaryDTO;
+import com.gourmich.dto.RecipeVersion;
 import com.gourmich.dto.UpdateRecipeDTO;
+import com.gourmich.event.RecipeChangedEvent;
+import com.gourmich.exception.PreconditionFailedException;
 import com.gourmich.exception.ResourceNotFoundException;
 import com.gourmich.exception.UnauthorizedException;
 import com.gourmich.models.Ingredient;
@@ -10,20 +19,25 @@ import com.gourmich.models.Recipe;
 import com.gourmich.models.RecipeCategory;
 import com.gourmich.models.Users;
 import com.gourmich.repo.IngredientRepository;
+import com.gourmich.repo.RecipeIngredientRow;
 import com.gourmich.repo.RecipeRepository;
 import com.gourmich.repo.UserRepository;
 import org.junit.jupiter.api.*;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -39,6 +53,18 @@ class RecipeServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RecipeCache recipeCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DatabaseVendor databaseVendor;
+
+    @Mock
+    private PantryIndex pantryIndex;
+
     @InjectMocks
     private RecipeService recipeService;
 
@@ -83,6 +109,7 @@ class RecipeServiceTest {
         assertEquals("My Recipe", saved.getTitle());
         assertEquals(1, saved.getIngredients().size());
         assertEquals("Salt", saved.getIngredients().get(0).getName());
+        verify(eventPublisher).publishEvent(any(RecipeChangedEvent.class));
     }
 
     @Test
@@ -165,13 +192,100 @@ class RecipeServiceTest {
         updatedDto.setDifficulty(2);
 
         when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
-        when(recipeRepository.save(any(Recipe.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(recipeRepository.saveAndFlush(any(Recipe.class))).thenAnswer(i -> i.getArguments()[0]);
 
         UpdateRecipeDTO result = recipeService.updateRecipe(1L, updatedDto);
 
         assertEquals("New Title", result.getTitle());
         assertEquals(1, result.getIngredients().size());
         assertEquals("Salt", result.getIngredients().get(0).getName());
+        verify(eventPublisher).publishEvent(new RecipeChangedEvent(1L));
+    }
+
+    @Test
+    void updateRecipe_IfMatchCurrent_ShouldUpdate() {
+        Recipe recipe = ownRecipe(2L);
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.saveAndFlush(any(Recipe.class))).thenAnswer(i -> i.getArguments()[0]);
+        String eTag = RecipeRevision.of(recipe).eTag();
+
+        recipeService.updateRecipe(1L, update(), "\"other\", " + eTag);
+
+        verify(recipeRepository).saveAndFlush(recipe);
+    }
+
+    @Test
+    void updateRecipe_IfMatchStale_ShouldThrowWithoutWriting() {
+        Recipe recipe = ownRecipe(2L);
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
+        String staleETag = RecipeRevision.of(ownRecipe(1L)).eTag();
+
+        assertThrows(PreconditionFailedException.class,
+                () -> recipeService.updateRecipe(1L, update(), staleETag));
+        assertThrows(PreconditionFailedException.class,
+                () -> recipeService.updateRecipe(1L, update(), "W/" + RecipeRevision.of(recipe).eTag()));
+        verify(recipeRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateRecipe_IfMatchWildcard_ShouldUpdate() {
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(ownRecipe(5L)));
+        when(recipeRepository.saveAndFlush(any(Recipe.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        assertNotNull(recipeService.updateRecipe(1L, update(), "*"));
+    }
+
+    @Test
+    void updateRecipe_ShouldMergeIngredientsInPlace() {
+        Recipe recipe = ownRecipe(0L);
+        Ingredient salt = new Ingredient("Salt", 1.0, "g", recipe);
+        Ingredient pepper = new Ingredient("Pepper", 2.0, "g", recipe);
+        Ingredient oil = new Ingredient("Oil", 3.0, "ml", recipe);
+        recipe.getIngredients().addAll(List.of(salt, pepper, oil));
+        List<Ingredient> collection = recipe.getIngredients();
+
+        RecipeDTO dto = update();
+        dto.setIngredients(List.of(
+                new IngredientDTO("pepper", 2, "g"),
+                new IngredientDTO("Salt", 5, "g"),
+                new IngredientDTO("Butter", 10, "g"),
+                new IngredientDTO("Flour", 200, "g")));
+
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.saveAndFlush(any(Recipe.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        recipeService.updateRecipe(1L, dto);
+
+        // même collection, instances existantes réutilisées : Oil est renommé en Butter, seul Flour est neuf
+        List<Ingredient> merged = recipe.getIngredients();
+        assertSame(collection, merged);
+        assertEquals(4, merged.size());
+        assertSame(pepper, merged.get(0));
+        assertSame(salt, merged.get(1));
+        assertEquals(5.0, salt.getQuantity());
+        assertSame(oil, merged.get(2));
+        assertEquals("Butter", oil.getName());
+        assertEquals("Flour", merged.get(3).getName());
+        assertSame(recipe, merged.get(3).getRecipe());
+        // ordre reçu porté par sort_order, les ids réutilisés ne le donnent plus
+        assertEquals(List.of(0, 1, 2, 3), merged.stream().map(Ingredient::getSortOrder).toList());
+    }
+
+    @Test
+    void updateRecipe_RemovedIngredients_ShouldLeaveCollection() {
+        Recipe recipe = ownRecipe(0L);
+        Ingredient salt = new Ingredient("Salt", 1.0, "g", recipe);
+        recipe.getIngredients().addAll(List.of(new Ingredient("Pepper", 2.0, "g", recipe), salt));
+
+        when(recipeRepository.findById(1L)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.saveAndFlush(any(Recipe.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        recipeService.updateRecipe(1L, update());
+
+        assertEquals(List.of(salt), recipe.getIngredients());
+        assertSame(salt, recipe.getIngredients().get(0));
+        assertEquals(10.0, salt.getQuantity());
     }
 
     @Test
@@ -192,6 +306,7 @@ class RecipeServiceTest {
         UnauthorizedException ex = assertThrows(UnauthorizedException.class,
                 () -> recipeService.updateRecipe(1L, new RecipeDTO()));
         assertTrue(ex.getMessage().contains("You're not allowed"));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -215,6 +330,7 @@ class RecipeServiceTest {
         recipeService.deleteRecipe(1L);
 
         verify(recipeRepository, times(1)).deleteById(1L);
+        verify(eventPublisher).publishEvent(new RecipeChangedEvent(1L));
     }
 
     @Test
@@ -244,25 +360,28 @@ class RecipeServiceTest {
 
     // ------------------- getRecipes -------------------
     @Test
-    void getAllRecipes_ShouldReturnListOfRecipes() {
-        Recipe r1 = new Recipe();
-        Recipe r2 = new Recipe();
-        List<Recipe> list = List.of(r1, r2);
-
-        when(recipeRepository.findAll()).thenReturn(list);
+    void getAllRecipes_ShouldGroupRowsIntoRecipes() {
+        when(recipeRepository.findAllRows()).thenReturn(List.of(
+                row(1L, "Ratatouille", "Courgette"),
+                row(1L, "Ratatouille", "Tomato"),
+                row(2L, "Water", null)));
 
-        List<Recipe> result = recipeService.getAllRecipes();
+        List<RecipeDTO> result = recipeService.getAllRecipes();
 
         assertEquals(2, result.size());
-        assertTrue(result.contains(r1));
-        assertTrue(result.contains(r2));
+        assertEquals(List.of("Courgette", "Tomato"),
+                result.get(0).getIngredients().stream().map(IngredientDTO::getName).toList());
+        assertEquals("chef", result.get(0).getAuthorUsername());
+        assertEquals(3L, result.get(0).getFavoriteCount());
+        assertTrue(result.get(1).getIngredients().isEmpty());
+        verify(recipeRepository, never()).findAll();
     }
 
     @Test
     void getAllRecipes_EmptyList_ShouldReturnEmptyList() {
-        when(recipeRepository.findAll()).thenReturn(List.of());
+        when(recipeRepository.findAllRows()).thenReturn(List.of());
 
-        List<Recipe> result = recipeService.getAllRecipes();
+        List<RecipeDTO> result = recipeService.getAllRecipes();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
@@ -290,31 +409,360 @@ class RecipeServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void getRecipeDtoById_ShouldLoadThroughCache() {
+        when(recipeRepository.findRowsById(1L)).thenReturn(List.of(row(1L, "Pasta", null)));
+        when(recipeCache.getDetail(eq(1L), any())).thenAnswer(invocation -> {
+            Function<Long, Optional<RecipeDTO>> loader = invocation.getArgument(1);
+            return loader.apply(1L);
+        });
+
+        Optional<RecipeDTO> result = recipeService.getRecipeDtoById(1L);
+
+        assertTrue(result.isPresent());
+        assertEquals("Pasta", result.get().getTitle());
+        assertEquals("chef", result.get().getAuthorUsername());
+        verify(recipeRepository, never()).findById(any());
+    }
+
+    @Test
+    void getRecipeDtoById_Unknown_ShouldReturnEmpty() {
+        when(recipeRepository.findRowsById(999L)).thenReturn(List.of());
+        when(recipeCache.getDetail(eq(999L), any())).thenAnswer(invocation -> {
+            Function<Long, Optional<RecipeDTO>> loader = invocation.getArgument(1);
+            return loader.apply(999L);
+        });
+
+        assertTrue(recipeService.getRecipeDtoById(999L).isEmpty());
+    }
+
+    @Test
+    void getLatestRecipeDtos_ShouldUseCappedCacheKey() {
+        when(recipeCache.getLatest(eq(24), any())).thenReturn(List.of());
+
+        List<RecipeDTO> result = recipeService.getLatestRecipeDtos(500);
+
+        assertTrue(result.isEmpty());
+        verify(recipeCache).getLatest(eq(24), any());
+    }
+
+    @Test
+    void getRecipeRevision_WhenCached_ShouldNotQueryDatabase() {
+        RecipeDTO cached = new RecipeDTO();
+        cached.setId(1L);
+        cached.setVersion(4L);
+        when(recipeCache.peekDetail(1L)).thenReturn(Optional.of(cached));
+
+        Optional<RecipeRevision> revision = recipeService.getRecipeRevision(1L);
+
+        assertEquals(RecipeRevision.of(List.of(cached)), revision.orElseThrow());
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void getRecipeRevision_WhenNotCached_ShouldReadVersionOnly() {
+        RecipeVersion version = mock(RecipeVersion.class);
+        when(version.getId()).thenReturn(1L);
+        when(version.getVersion()).thenReturn(4L);
+        when(recipeCache.peekDetail(1L)).thenReturn(Optional.empty());
+        when(recipeRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+
+        assertTrue(recipeService.getRecipeRevision(1L).isPresent());
+        verify(recipeRepository, never()).findById(any());
+    }
+
+    @Test
+    void getLatestRevision_WhenNotCached_ShouldReadCappedVersions() {
+        when(recipeCache.peekLatest(24)).thenReturn(Optional.empty());
+        when(recipeRepository.findLatestVersions(any(Pageable.class))).thenReturn(List.of());
+
+        recipeService.getLatestRevision(500);
+
+        verify(recipeRepository).findLatestVersions(argThat(p -> p.getPageSize() == 24));
+        verify(recipeRepository, never()).findRowsByIdIn(any());
+    }
+
     // ------------------- getLatestRecipes -------------------
     @Test
     void getLatestRecipes_ShouldReturnList() {
-        Recipe r1 = new Recipe();
-        Recipe r2 = new Recipe();
-        List<Recipe> list = List.of(r1, r2);
-
-        when(recipeRepository.findLatestWithRelations(any(Pageable.class))).thenReturn(list);
+        when(recipeRepository.findLatestIds(any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(recipeRepository.findRowsByIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                row(1L, "Pasta", "Flour"), row(2L, "Salad", "Lettuce")));
 
-        List<Recipe> result = recipeService.getLatestRecipes(2);
+        List<RecipeDTO> result = recipeService.getLatestRecipes(2);
 
         assertEquals(2, result.size());
     }
 
     @Test
     void getLatestRecipes_NGreaterThanListSize_ShouldReturnAll() {
-        Recipe r1 = new Recipe();
-        List<Recipe> list = List.of(r1);
+        when(recipeRepository.findLatestIds(any(Pageable.class))).thenReturn(List.of(1L));
+        when(recipeRepository.findRowsByIdIn(List.of(1L))).thenReturn(List.of(row(1L, "Pasta", null)));
 
-        when(recipeRepository.findLatestWithRelations(any(Pageable.class))).thenReturn(list);
-
-        List<Recipe> result = recipeService.getLatestRecipes(10);
+        List<RecipeDTO> result = recipeService.getLatestRecipes(10);
         assertEquals(1, result.size());
     }
 
+    @Test
+    void getLatestRecipes_ShouldKeepOrderOfLatestIds() {
+        when(recipeRepository.findLatestIds(any(Pageable.class))).thenReturn(List.of(2L, 1L));
+        when(recipeRepository.findRowsByIdIn(List.of(2L, 1L))).thenReturn(List.of(
+                row(1L, "Older", "Flour"), row(2L, "Newer", "Flour"), row(2L, "Newer", "Egg")));
+
+        List<RecipeDTO> result = recipeService.getLatestRecipes(2);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(RecipeDTO::getId).toList());
+        assertEquals(2, result.get(0).getIngredients().size());
+    }
+
+    @Test
+    void getLatestRecipes_NAboveMax_ShouldBeCapped() {
+        when(recipeRepository.findLatestIds(any(Pageable.class))).thenReturn(List.of());
+
+        List<RecipeDTO> result = recipeService.getLatestRecipes(1_000_000);
+
+        assertTrue(result.isEmpty());
+        verify(recipeRepository).findLatestIds(argThat(p -> p.getPageSize() == 24));
+        verify(recipeRepository, never()).findRowsByIdIn(any());
+    }
+
+    @Test
+    void getLatestRecipes_NBelowOne_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> recipeService.getLatestRecipes(0));
+    }
+
+    // ------------------- getRecipePage -------------------
+    @Test
+    void getRecipePage_FirstPage_ShouldReturnItemsAndNextCursor() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        List<RecipeSummaryDTO> rows = List.of(
+                summary(3L, now),
+                summary(2L, now.minusHours(1)),
+                summary(1L, now.minusHours(2))
+        );
+        when(recipeRepository.findSummaries(any(Pageable.class))).thenReturn(rows);
+
+        RecipePageDTO page = recipeService.getRecipePage(null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(3L, page.getItems().get(0).getId());
+        assertNotNull(page.getNext());
+        verify(recipeRepository).findSummaries(argThat(p -> p.getPageSize() == 3));
+    }
+
+    @Test
+    void getRecipePage_LastPage_ShouldHaveNoNextCursor() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        when(recipeRepository.findSummaries(any(Pageable.class))).thenReturn(List.of(summary(1L, now)));
+
+        RecipePageDTO page = recipeService.getRecipePage(null, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void getRecipePage_WithCursor_ShouldResumeAfterLastRow() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        when(recipeRepository.findSummaries(any(Pageable.class)))
+                .thenReturn(List.of(summary(3L, now), summary(2L, now.minusHours(1))));
+        String next = recipeService.getRecipePage(null, 1).getNext();
+
+        when(recipeRepository.findSummariesBefore(eq(now), eq(3L), any(Pageable.class)))
+                .thenReturn(List.of(summary(2L, now.minusHours(1))));
+
+        RecipePageDTO page = recipeService.getRecipePage(next, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(2L, page.getItems().get(0).getId());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void getRecipePage_SizeAboveMax_ShouldBeCapped() {
+        when(recipeRepository.findSummaries(any(Pageable.class))).thenReturn(List.of());
+
+        recipeService.getRecipePage(null, 10_000);
+
+        verify(recipeRepository).findSummaries(argThat(p -> p.getPageSize() == 101));
+    }
+
+    @Test
+    void getRecipePage_InvalidCursor_ShouldThrow() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> recipeService.getRecipePage("not-a-cursor", 10));
+        assertEquals("Invalid cursor", ex.getMessage());
+    }
+
+    @Test
+    void getRecipePage_WithFilter_ShouldUseFilteredQuery() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        RecipeFilter filter = new RecipeFilter(RecipeCategory.DESSERT, null, null, 30L);
+        when(recipeRepository.findFilteredSummaries(filter, null, null, 3))
+                .thenReturn(List.of(summary(3L, now), summary(2L, now.minusHours(1)), summary(1L, now.minusHours(2))));
+
+        RecipePageDTO page = recipeService.getRecipePage(filter, null, 2, false);
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getFacets());
+
+        when(recipeRepository.findFilteredSummaries(filter, now.minusHours(1), 2L, 3))
+                .thenReturn(List.of(summary(1L, now.minusHours(2))));
+        RecipePageDTO next = recipeService.getRecipePage(filter, page.getNext(), 2, false);
+
+        assertEquals(List.of(1L), next.getItems().stream().map(RecipeSummaryDTO::getId).toList());
+        verify(recipeRepository, never()).findSummaries(any(Pageable.class));
+    }
+
+    @Test
+    void getRecipePage_WithFacets_ShouldListEveryCategoryOnFirstPageOnly() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        when(recipeRepository.findSummaries(any(Pageable.class)))
+                .thenReturn(List.of(summary(2L, now), summary(1L, now.minusHours(1))));
+        when(recipeRepository.countByCategory(RecipeFilter.NONE)).thenReturn(Map.of(RecipeCategory.DESSERT, 2L));
+        when(recipeRepository.countByDifficulty(RecipeFilter.NONE)).thenReturn(Map.of(3, 1L, 1, 1L));
+
+        RecipePageDTO page = recipeService.getRecipePage(RecipeFilter.NONE, null, 1, true);
+
+        assertEquals(RecipeCategory.values().length, page.getFacets().getCategories().size());
+        assertEquals(2L, page.getFacets().getCategories().get("DESSERT"));
+        assertEquals(0L, page.getFacets().getCategories().get("DRINK"));
+        assertEquals(List.of(1, 3), List.copyOf(page.getFacets().getDifficulties().keySet()));
+
+        when(recipeRepository.findSummariesBefore(any(), any(), any(Pageable.class))).thenReturn(List.of());
+        assertNull(recipeService.getRecipePage(RecipeFilter.NONE, page.getNext(), 1, true).getFacets());
+        verify(recipeRepository, times(1)).countByCategory(any());
+    }
+
+    @Test
+    void getRecipePage_Popular_ShouldPageOnFavoriteCount() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 10, 12, 0);
+        when(recipeRepository.findPopularSummaries(RecipeFilter.NONE, null, null, 2))
+                .thenReturn(List.of(summary(3L, now, 9L), summary(1L, now, 4L)));
+
+        RecipePageDTO page = recipeService.getRecipePage(RecipeFilter.NONE, RecipeSort.POPULAR, null, 1, false);
+        assertEquals(List.of(3L), page.getItems().stream().map(RecipeSummaryDTO::getId).toList());
+
+        when(recipeRepository.findPopularSummaries(RecipeFilter.NONE, 9L, 3L, 2))
+                .thenReturn(List.of(summary(1L, now, 4L)));
+        RecipePageDTO next = recipeService.getRecipePage(RecipeFilter.NONE, RecipeSort.POPULAR, page.getNext(), 1, false);
+
+        assertEquals(List.of(1L), next.getItems().stream().map(RecipeSummaryDTO::getId).toList());
+        assertNull(next.getNext());
+        verify(recipeRepository, never()).findSummaries(any(Pageable.class));
+    }
+
+    @Test
+    void getRecipePage_PopularWithLatestCursor_ShouldThrow() {
+        String latestCursor = PageCursor.encode(LocalDateTime.of(2025, 1, 10, 12, 0), 3L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> recipeService.getRecipePage(RecipeFilter.NONE, RecipeSort.POPULAR, latestCursor, 1, false));
+    }
+
+    @Test
+    void getRecipePage_InvertedDifficultyRange_ShouldThrow() {
+        RecipeFilter filter = new RecipeFilter(null, 3, 1, null);
+        assertThrows(IllegalArgumentException.class, () -> recipeService.getRecipePage(filter, null, 10, false));
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void getRecipePage_NegativeCookingTime_ShouldThrow() {
+        RecipeFilter filter = new RecipeFilter(null, null, null, -5L);
+        assertThrows(IllegalArgumentException.class, () -> recipeService.getRecipePage(filter, null, 10, false));
+    }
+
+    // ------------------- searchRecipes -------------------
+    @Test
+    void searchRecipes_OnPostgreSql_ShouldUseFullTextAndKeepRankOrder() {
+        when(databaseVendor.isPostgreSql()).thenReturn(true);
+        when(recipeRepository.searchIdsFullText("tarte pommes", 3, 0)).thenReturn(List.of(5L, 2L, 9L));
+        when(recipeRepository.findSummariesByIdIn(List.of(5L, 2L)))
+                .thenReturn(List.of(summary(2L, LocalDateTime.now()), summary(5L, LocalDateTime.now())));
+
+        RecipePageDTO page = recipeService.searchRecipes("  tarte pommes ", null, 2);
+
+        assertEquals(List.of(5L, 2L), page.getItems().stream().map(RecipeSummaryDTO::getId).toList());
+        assertNotNull(page.getNext());
+        verify(recipeRepository, never()).searchIdsLike(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void searchRecipes_WithCursor_ShouldResumeAtOffset() {
+        when(databaseVendor.isPostgreSql()).thenReturn(true);
+        when(recipeRepository.searchIdsFullText("soupe", 3, 0)).thenReturn(List.of(1L, 2L, 3L));
+        when(recipeRepository.findSummariesByIdIn(any())).thenReturn(List.of());
+        String next = recipeService.searchRecipes("soupe", null, 2).getNext();
+
+        when(recipeRepository.searchIdsFullText("soupe", 3, 2)).thenReturn(List.of(3L));
+        when(recipeRepository.findSummariesByIdIn(List.of(3L))).thenReturn(List.of(summary(3L, LocalDateTime.now())));
+
+        RecipePageDTO page = recipeService.searchRecipes("soupe", next, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void searchRecipes_OnOtherDatabase_ShouldFallBackToEscapedLike() {
+        when(databaseVendor.isPostgreSql()).thenReturn(false);
+        when(recipeRepository.searchIdsLike("%100\\%_bio%", 21, 0)).thenReturn(List.of());
+
+        RecipePageDTO page = recipeService.searchRecipes("100%_Bio", null, null);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void searchRecipes_BlankQuery_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> recipeService.searchRecipes("  ", null, null));
+        assertThrows(IllegalArgumentException.class, () -> recipeService.searchRecipes(null, null, null));
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void searchRecipes_QueryTooLong_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> recipeService.searchRecipes("a".repeat(201), null, null));
+    }
+
+    // ------------------- findRecipesForPantry -------------------
+    @Test
+    void findRecipesForPantry_ShouldKeepIndexRanking() {
+        List<String> pantry = List.of("oeufs", "lait");
+        when(pantryIndex.match(pantry, 2, 20)).thenReturn(List.of(
+                new PantryIndex.Match(7L, 2, 2),
+                new PantryIndex.Match(3L, 2, 4)
+        ));
+        when(recipeRepository.findSummariesByIdIn(List.of(7L, 3L)))
+                .thenReturn(List.of(summary(3L, LocalDateTime.now()), summary(7L, LocalDateTime.now())));
+
+        List<PantryMatchDTO> result = recipeService.findRecipesForPantry(pantry, 2, null);
+
+        assertEquals(List.of(7L, 3L), result.stream().map(m -> m.getRecipe().getId()).toList());
+        assertEquals(0, result.get(0).getMissingIngredients());
+        assertEquals(2, result.get(1).getMatchedIngredients());
+        assertEquals(2, result.get(1).getMissingIngredients());
+    }
+
+    @Test
+    void findRecipesForPantry_NoMatch_ShouldNotQueryDatabase() {
+        when(pantryIndex.match(anyList(), anyInt(), anyInt())).thenReturn(List.of());
+
+        assertTrue(recipeService.findRecipesForPantry(List.of("truffe"), 0, 5).isEmpty());
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void findRecipesForPantry_InvalidInput_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> recipeService.findRecipesForPantry(null, 2, null));
+        assertThrows(IllegalArgumentException.class, () -> recipeService.findRecipesForPantry(List.of(" "), 2, null));
+        assertThrows(IllegalArgumentException.class, () -> recipeService.findRecipesForPantry(List.of("sel"), -1, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> recipeService.findRecipesForPantry(java.util.Collections.nCopies(51, "sel"), 2, null));
+    }
+
     // ------------------- DTOs -------------------
     @Test
     void toDto_ShouldMapAllFieldsCorrectly() {
@@ -363,4 +811,42 @@ class RecipeServiceTest {
         assertTrue(dto.getIngredients().isEmpty());
         assertEquals("alice", dto.getAuthorUsername());
     }
-}
\ No newline at end of file
+
+    private RecipeSummaryDTO summary(Long id, LocalDateTime createdAt, Long favoriteCount) {
+        RecipeSummaryDTO dto = summary(id, createdAt);
+        dto.setFavoriteCount(favoriteCount);
+        return dto;
+    }
+
+    private RecipeSummaryDTO summary(Long id, LocalDateTime createdAt) {
+        RecipeSummaryDTO dto = new RecipeSummaryDTO();
+        dto.setId(id);
+        dto.setTitle("Recipe " + id);
+        dto.setCreatedAt(createdAt);
+        return dto;
+    }
+
+    private static RecipeIngredientRow row(Long id, String title, String ingredient) {
+        return new RecipeIngredientRow(id, title, null, null, RecipeCategory.MAIN_COURSE, 2, 30L, "Cook", "chef",
+                0L, LocalDateTime.of(2025, 1, 10, 12, 0), 3L, ingredient, ingredient == null ? null : 1.0,
+                ingredient == null ? null : "pcs");
+    }
+
+    private Recipe ownRecipe(Long version) {
+        Recipe recipe = new Recipe();
+        recipe.setId(1L);
+        recipe.setVersion(version);
+        recipe.setAuthor(user);
+        recipe.setIngredients(new ArrayList<>());
+        return recipe;
+    }
+
+    private RecipeDTO update() {
+        RecipeDTO dto = new RecipeDTO();
+        dto.setTitle("New Title");
+        dto.setCategory(RecipeCategory.MAIN_COURSE);
+        dto.setDifficulty(2);
+        dto.setIngredients(List.of(new IngredientDTO("Salt", 10, "g")));
+        return dto;
+    }
+}
@@ -88,6 +88,26 @@ class UserServiceIT {
         assertFalse(body.getToken().isBlank());
     }
 
+    @Test
+    void login_PasswordHashedWithLowerCost_ShouldBeRehashed() {
+        Users user = new Users();
+        user.setUsername("john");
+        user.setEmail("john@example.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        userRepository.save(user);
+
+        LoginRequest request = new LoginRequest();
+        request.setUsername("john");
+        request.setPassword("secret");
+
+        ResponseEntity<Object> response = userService.login(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String storedHash = userRepository.findByUsername("john").orElseThrow().getPassword();
+        assertTrue(storedHash.startsWith("$2a$12$"), "hash should be upgraded to cost 12: " + storedHash);
+        assertTrue(passwordEncoder.matches("secret", storedHash));
+    }
+
     @Test
     void login_InvalidCredentials_ShouldReturnUnauthorized() {
         // Préparer un utilisateur avec mot de passe connu
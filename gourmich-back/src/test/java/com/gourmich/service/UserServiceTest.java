@@ -2,16 +2,21 @@ package com.gourmich.service;
 
 import com.gourmich.dto.AuthResponse;
 import com.gourmich.dto.LoginRequest;
+import com.gourmich.event.UserChangedEvent;
+import com.gourmich.exception.ServerBusyException;
 import com.gourmich.models.Users;
 import com.gourmich.repo.UserRepository;
 import org.junit.jupiter.api.*;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +32,12 @@ class UserServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
     @InjectMocks
     private UserService userService;
 
@@ -57,6 +68,7 @@ class UserServiceTest {
         assertTrue(new BCryptPasswordEncoder().matches("plainpassword", saved.getPassword()));
         assertEquals("testuser", saved.getUsername());
         verify(userRepository, times(1)).save(saved);
+        verify(eventPublisher).publishEvent(new UserChangedEvent("testuser"));
     }
 
     // ------------------- login -------------------
@@ -110,6 +122,18 @@ class UserServiceTest {
         assertEquals("Authentication failed", response.getBody());
     }
 
+    @Test
+    void login_HashingPoolSaturated_ShouldPropagateServerBusy() {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("testuser");
+        request.setPassword("password");
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new InternalAuthenticationServiceException("wrapped", new ServerBusyException("busy")));
+
+        assertThrows(ServerBusyException.class, () -> userService.login(request));
+    }
+
     @Test
     void login_AuthenticationNotAuthenticated_ShouldReturnUnauthorized() {
         LoginRequest request = new LoginRequest();
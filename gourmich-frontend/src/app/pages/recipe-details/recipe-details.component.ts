@@ -32,7 +32,6 @@ export class RecipeDetailsComponent implements OnInit {
   recipe: Recipe = {} as Recipe;
   imageLoadError: Record<number, boolean> = {};
   currentUser: string | null = null;
-  isFavorite: boolean = false;
 
   constructor(
     private authService: AuthService,
@@ -52,17 +51,17 @@ export class RecipeDetailsComponent implements OnInit {
     next: (recipe) => {
       this.recipe = recipe;
 
-      if (this.currentUser) {
-        this.recipeService.isFavorite(recipe.id).subscribe({
-          next: (fav) => this.isFavorite = fav,
-          error: (err) => console.error('Erreur vérification favoris', err)
-        });
-      }
+      this.favoriteManager.initializeFavorites([recipe]);
     },
     error: (err) => console.error('Erreur récupération recette', err)
   });
 }
 
+  // Suit FavoriteManagerService : le cœur ne change qu'une fois la requête acceptée
+  get isFavorite(): boolean {
+    return this.recipe.id != null && this.favoriteManager.getFavoriteStatus(this.recipe.id);
+  }
+
   getIngredientsCount(): number {
     return this.recipe?.ingredients?.length ?? 0;
   }
@@ -106,11 +105,6 @@ export class RecipeDetailsComponent implements OnInit {
   }
 
 toggleFavorite(recipe: Recipe) {
-  try {
-    this.favoriteManager.toggleFavorite(recipe.id);
-    this.isFavorite = !this.isFavorite;
-  } catch (err) {
-    console.error('Erreur toggle favori', err);
-  }
+  this.favoriteManager.toggleFavorite(recipe.id);
 }
 }
\ No newline at end of file
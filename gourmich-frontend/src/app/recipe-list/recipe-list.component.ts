@@ -18,6 +18,7 @@ export class RecipeListComponent implements OnInit {
   currentUser: string | null = null;
   recipes: Recipe[] = [];
   favoriteStatus: Record<number, boolean> = {};
+  nextFavoriteCursor: string | null = null;
 
   constructor(
     private router: Router,
@@ -33,24 +34,7 @@ export class RecipeListComponent implements OnInit {
     if (this.showFavorites) {
       if (!this.currentUser) return; // si non connecté, ne pas charger les favoris
 
-      this.recipeService.getFavorites().subscribe({
-        next: (favorites) => {
-          this.recipes = favorites.map((fav: any) => ({
-            id: fav.recipeId,
-            title: fav.title,
-            category: fav.category,
-            difficulty: fav.difficulty,
-            cookingTime: fav.cookingTime,
-            authorUsername: fav.authorUsername,
-            description: fav.description,
-            ingredients: fav.ingredients,
-            instructions: fav.instructions,
-            imageUrl: fav.imageUrl
-          }));
-          this.recipes.forEach(recipe => this.favoriteStatus[recipe.id] = true);
-        },
-        error: (err) => console.error("Erreur récupération favoris", err)
-      });
+      this.loadFavoritePage();
     } else {
       this.recipeService.getAllRecipes().subscribe({
         next: (recipes) => {
@@ -58,11 +42,10 @@ export class RecipeListComponent implements OnInit {
 
           // Ne récupérer les favoris que si utilisateur connecté
           if (this.currentUser) {
-            this.recipeService.getFavorites().subscribe({
-              next: (favorites) => {
-                const favSet = new Set(favorites.map((fav: any) => fav.recipeId));
+            this.recipeService.getFavoriteStatus(this.recipes.map(recipe => recipe.id)).subscribe({
+              next: (status) => {
                 this.recipes.forEach(recipe => {
-                  this.favoriteStatus[recipe.id] = favSet.has(recipe.id);
+                  this.favoriteStatus[recipe.id] = status[recipe.id] || false;
                 });
               },
               error: () => {
@@ -78,15 +61,42 @@ export class RecipeListComponent implements OnInit {
     }
   }
 
+  // Favoris page par page : la suivante est ajoutée à la liste tant que le serveur renvoie un curseur
+  loadFavoritePage(): void {
+    this.recipeService.getFavoritePage(this.nextFavoriteCursor).subscribe({
+      next: (page) => {
+        const recipes = page.items.map(fav => ({
+          id: fav.recipeId,
+          title: fav.title,
+          category: fav.category,
+          cookingTime: fav.cookingTime,
+          authorUsername: fav.authorUsername,
+          description: fav.description,
+          imageUrl: fav.imageUrl
+        } as Recipe));
+        recipes.forEach(recipe => this.favoriteStatus[recipe.id] = true);
+        this.recipes = [...this.recipes, ...recipes];
+        this.nextFavoriteCursor = page.next;
+      },
+      error: (err) => console.error("Erreur récupération favoris", err)
+    });
+  }
+
   toggleFavorite(recipeId: number): void {
     if (!this.currentUser) {
       this.router.navigate(['/login']);
       return;
     }
 
-    this.recipeService.toggleFavorite(recipeId).subscribe({
-      next: (response: any) => {
-        this.favoriteStatus[recipeId] = response !== 'Unfav recipe';
+    // Requête idempotente tirée de l'état affiché : deux clics avant la réponse envoient deux fois la même
+    const favorite = !this.favoriteStatus[recipeId];
+    const request = favorite
+      ? this.recipeService.addFavorite(recipeId)
+      : this.recipeService.removeFavorite(recipeId);
+
+    request.subscribe({
+      next: () => {
+        this.favoriteStatus[recipeId] = favorite;
 
         if (this.showFavorites && !this.favoriteStatus[recipeId]) {
           this.recipes = this.recipes.filter(r => r.id !== recipeId);
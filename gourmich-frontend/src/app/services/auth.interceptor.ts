@@ -27,11 +27,14 @@ export class AuthInterceptor implements HttpInterceptor {
       { url: '/api/auth/check-username', method: 'GET' }
     ];
 
+    // Favoris : authentifiés pour toutes les méthodes, même en GET malgré le préfixe '/api/' ci-dessus
+    const protectedUrls = ['/api/favorites'];
+
     
     const urlWithoutParams = req.url.split('?')[0];
 
     
-    const isPublic = publicUrls.some(entry => {
+    const isPublic = !protectedUrls.some(url => urlWithoutParams.startsWith(url)) && publicUrls.some(entry => {
       return (
         (urlWithoutParams === entry.url || urlWithoutParams.startsWith(entry.url)) &&
         req.method === entry.method
@@ -22,11 +22,10 @@ export class FavoriteManagerService {
     const isLoggedIn = this.authService.isLoggedIn();
 
     if (isLoggedIn) {
-      this.recipeService.getFavorites().subscribe({
-        next: (favorites) => {
-          const favSet = new Set(favorites.map((fav: any) => fav.recipeId));
+      this.recipeService.getFavoriteStatus(recipes.map(recipe => recipe.id)).subscribe({
+        next: (status) => {
           recipes.forEach(recipe => {
-            this.favoriteStatus[recipe.id] = favSet.has(recipe.id);
+            this.favoriteStatus[recipe.id] = status[recipe.id] || false;
           });
         },
         error: () => {
@@ -48,9 +47,15 @@ export class FavoriteManagerService {
     return;
   }
 
-  this.recipeService.toggleFavorite(recipeId).subscribe({
-    next: (response: any) => {
-      this.favoriteStatus[recipeId] = response !== 'Unfav recipe';
+  // Requête idempotente tirée de l'état affiché : deux clics avant la réponse envoient deux fois la même
+  const favorite = !this.favoriteStatus[recipeId];
+  const request = favorite
+    ? this.recipeService.addFavorite(recipeId)
+    : this.recipeService.removeFavorite(recipeId);
+
+  request.subscribe({
+    next: () => {
+      this.favoriteStatus[recipeId] = favorite;
 
       this.messageService.add({
         severity: 'success',
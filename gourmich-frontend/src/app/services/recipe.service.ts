@@ -1,7 +1,6 @@
-import { HttpClient, HttpHeaders } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Injectable } from '@angular/core';
-import { Observable } from 'rxjs';
-import { AuthService } from './auth.service';
+import { Observable, forkJoin, map, of } from 'rxjs';
 import { environment } from '../../environments/environment.prod';
 
 
@@ -27,26 +26,33 @@ export interface Ingredient {
 export interface Favorite {
   id: number;
   recipeId: number;
-  userId: number;
+  title: string;
+  description: string;
+  imageUrl?: string;
+  authorUsername: string;
+  cookingTime: number;
+  category: string;
+  addAt: string;
+}
+
+export interface FavoritePage {
+  items: Favorite[];
+  next: string | null;
 }
 
+// Limite de POST /api/favorites/status côté serveur
+const MAX_STATUS_IDS = 200;
+
 @Injectable({
   providedIn: 'root'
 })
 export class RecipeService {
 
-  constructor(private http: HttpClient, private authService: AuthService) { }
+  constructor(private http: HttpClient) { }
 
   private recipesUrl = `${environment.apiUrl}recipes`;
   private favoritesUrl = `${environment.apiUrl}favorites`;
 
-  private getAuthHeaders(): HttpHeaders {
-    const token = this.authService.getToken();
-    return new HttpHeaders({
-      'Authorization': `Bearer ${token}`
-    });
-  }
-
   getAllRecipes(): Observable<Recipe[]> {
     return this.http.get<Recipe[]>(this.recipesUrl);
   }
@@ -67,27 +73,35 @@ export class RecipeService {
     return this.http.put<Recipe>(`${this.recipesUrl}/by-id/${id}`, recipe);
   }
 
-  getFavorites(): Observable<Recipe[]> {
-    return this.http.get<Recipe[]>(this.favoritesUrl, {
-      headers: this.getAuthHeaders()
-    });
+  // Une page de favoris à la fois, les plus récents d'abord ; next vaut null sur la dernière page
+  getFavoritePage(cursor?: string | null, size?: number): Observable<FavoritePage> {
+    let params = new HttpParams();
+    if (cursor) params = params.set('cursor', cursor);
+    if (size) params = params.set('size', size);
+    return this.http.get<FavoritePage>(`${this.favoritesUrl}/page`, { params });
   }
-  
-  toggleFavorite(recipeId: number): Observable<string> {
-    return this.http.post(`${this.favoritesUrl}/toggle?recipeId=${recipeId}`, {}, {
-      headers: this.getAuthHeaders(),
-      responseType: 'text'
-    });
+
+  // Statuts de toutes les recettes affichées en un appel par tranche de MAX_STATUS_IDS
+  getFavoriteStatus(recipeIds: number[]): Observable<Record<number, boolean>> {
+    if (recipeIds.length === 0) return of({});
+    const chunks: number[][] = [];
+    for (let i = 0; i < recipeIds.length; i += MAX_STATUS_IDS) {
+      chunks.push(recipeIds.slice(i, i + MAX_STATUS_IDS));
+    }
+    return forkJoin(chunks.map(chunk =>
+      this.http.post<Record<number, boolean>>(`${this.favoritesUrl}/status`, chunk)
+    )).pipe(map(statuses => Object.assign({}, ...statuses)));
+  }
+
+  // PUT/DELETE idempotents : rejouer un clic ne change pas l'état final
+  addFavorite(recipeId: number): Observable<void> {
+    return this.http.put<void>(`${this.favoritesUrl}/${recipeId}`, null);
   }
 
-  isFavorite(recipeId: number): Observable<boolean> {
-    return this.http.get<boolean>(`${this.favoritesUrl}/is-favorite/${recipeId}`, {
-      headers: this.getAuthHeaders()
-    });
+  removeFavorite(recipeId: number): Observable<void> {
+    return this.http.delete<void>(`${this.favoritesUrl}/${recipeId}`);
   }
 
-  
-  
   getLatestRecipes(nbOfRecipe: number = 3): Observable<any[]> {
   return this.http.get<any[]>(`${this.recipesUrl}/latest?n=${nbOfRecipe}`);
 }